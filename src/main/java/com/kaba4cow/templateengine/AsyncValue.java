@@ -0,0 +1,40 @@
+package com.kaba4cow.templateengine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A value or list bound with a future, waited for only when its placeholder is rendered.
+ */
+final class AsyncValue extends DeferredValue {
+
+	private final CompletableFuture<?> future;
+
+	AsyncValue(CompletableFuture<?> future) {
+		this.future = future;
+	}
+
+	@Override
+	Object get() {
+		return future.join();
+	}
+
+	@Override
+	void reset() {}
+
+	@Override
+	CompletableFuture<?> resolve(Executor executor) {
+		return future;
+	}
+
+	@Override
+	CompletableFuture<?> pending() {
+		return future;
+	}
+
+	@Override
+	public String toString() {
+		return future.isDone() && !future.isCompletedExceptionally() ? String.valueOf(future.join()) : "<not completed>";
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.kaba4cow.templateengine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * A {@code TemplateBinder} reading the properties of objects of a class with cached {@code MethodHandle}s.
+ * <p>
+ * Placeholders are matched with the properties of the class once, when the binder is created; placeholders without a
+ * matching property are left unbound. Binding then invokes one accessor per slot, through an invocation type that
+ * binds primitive properties without boxing them.
+ * </p>
+ * 
+ * @param <T> the type of the bound objects
+ * 
+ * @see BeanProperties
+ */
+final class BeanBinder<T> implements TemplateBinder<T> {
+
+	private static final int OBJECT = 0;
+	private static final int LONG = 1;
+	private static final int DOUBLE = 2;
+	private static final int FLOAT = 3;
+	private static final int BOOLEAN = 4;
+	private static final int CHAR = 5;
+	private static final int SUPPLIER = 6;
+	private static final int COLLECTION = 7;
+	private static final int STAGE = 8;
+
+	private final CompiledTemplate template;
+	private final MethodHandle[] valueAccessors;
+	private final int[] valueKinds;
+	private final MethodHandle[] listAccessors;
+	private final int[] listKinds;
+
+	/**
+	 * Creates a new {@code BeanBinder} matching the placeholders of the specified template with the properties of the
+	 * specified class.
+	 * 
+	 * @param template the template to bind to
+	 * @param type     the class of the bound objects
+	 * 
+	 * @throws TemplateEngineException if the property of a list placeholder is not a {@code Collection},
+	 *                                 {@code Supplier} or {@code CompletionStage}
+	 */
+	BeanBinder(CompiledTemplate template, Class<T> type) {
+		this.template = template;
+		BeanProperties properties = BeanProperties.forType(type);
+		List<String> valueNames = template.valueNames();
+		this.valueAccessors = new MethodHandle[valueNames.size()];
+		this.valueKinds = new int[valueNames.size()];
+		for (int slot = 0; slot < valueNames.size(); slot++) {
+			MethodHandle accessor = properties.accessor(valueNames.get(slot));
+			if (accessor == null)
+				continue;
+			Class<?> propertyType = accessor.type().returnType();
+			int kind = valueKind(propertyType);
+			valueKinds[slot] = kind;
+			valueAccessors[slot] = accessor.asType(MethodType.methodType(invocationType(kind), Object.class));
+		}
+		List<String> listNames = template.listNames();
+		this.listAccessors = new MethodHandle[listNames.size()];
+		this.listKinds = new int[listNames.size()];
+		for (int slot = 0; slot < listNames.size(); slot++) {
+			MethodHandle accessor = properties.accessor(listNames.get(slot));
+			if (accessor == null)
+				continue;
+			Class<?> propertyType = accessor.type().returnType();
+			int kind = listKind(propertyType);
+			if (kind == OBJECT)
+				throw new TemplateEngineException("Property %s of %s is not a Collection, Supplier or CompletionStage",
+						listNames.get(slot), type.getName());
+			listKinds[slot] = kind;
+			listAccessors[slot] = accessor.asType(MethodType.methodType(Object.class, Object.class));
+		}
+	}
+
+	@Override
+	public CompiledTemplate template() {
+		return template;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Lists that are {@code null} are left unbound.
+	 * </p>
+	 * 
+	 * @throws RuntimeException if a property accessor throws a checked exception
+	 */
+	@Override
+	public void bind(T source, TemplateBindings bindings) {
+		Objects.requireNonNull(source);
+		if (bindings.template() != template)
+			throw new IllegalArgumentException("Bindings belong to another template");
+		try {
+			for (int slot = 0; slot < valueAccessors.length; slot++) {
+				MethodHandle accessor = valueAccessors[slot];
+				if (accessor != null)
+					bindValue(bindings, slot, accessor, source);
+			}
+			for (int slot = 0; slot < listAccessors.length; slot++) {
+				MethodHandle accessor = listAccessors[slot];
+				if (accessor != null)
+					bindList(bindings, slot, accessor, source);
+			}
+		} catch (RuntimeException | Error exception) {
+			throw exception;
+		} catch (Throwable throwable) {
+			throw new RuntimeException(String.format("Could not read properties of %s", source.getClass().getName()),
+					throwable);
+		}
+	}
+
+	private void bindValue(TemplateBindings bindings, int slot, MethodHandle accessor, Object source)
+			throws Throwable {
+		switch (valueKinds[slot]) {
+		case LONG:
+			bindings.value(slot, (long) accessor.invokeExact(source));
+			break;
+		case DOUBLE:
+			bindings.value(slot, (double) accessor.invokeExact(source));
+			break;
+		case FLOAT:
+			bindings.value(slot, (float) accessor.invokeExact(source));
+			break;
+		case BOOLEAN:
+			bindings.value(slot, (boolean) accessor.invokeExact(source));
+			break;
+		case CHAR:
+			bindings.value(slot, (char) accessor.invokeExact(source));
+			break;
+		case SUPPLIER: {
+			Object value = accessor.invokeExact(source);
+			bindings.value(slot, (Supplier<?>) value);
+			break;
+		}
+		default: {
+			Object value = accessor.invokeExact(source);
+			bindings.value(slot, value);
+			break;
+		}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void bindList(TemplateBindings bindings, int slot, MethodHandle accessor, Object source) throws Throwable {
+		Object list = accessor.invokeExact(source);
+		if (list == null)
+			return;
+		switch (listKinds[slot]) {
+		case SUPPLIER:
+			bindings.list(slot, (Supplier<? extends Collection<?>>) list);
+			break;
+		case STAGE:
+			bindings.list(slot, (CompletionStage<? extends Collection<?>>) list);
+			break;
+		default:
+			bindings.list(slot, (Collection<?>) list);
+			break;
+		}
+	}
+
+	private static int valueKind(Class<?> type) {
+		if (type == long.class || type == int.class || type == short.class || type == byte.class)
+			return LONG;
+		else if (type == double.class)
+			return DOUBLE;
+		else if (type == float.class)
+			return FLOAT;
+		else if (type == boolean.class)
+			return BOOLEAN;
+		else if (type == char.class)
+			return CHAR;
+		else if (Supplier.class.isAssignableFrom(type))
+			return SUPPLIER;
+		else
+			return OBJECT;
+	}
+
+	private static int listKind(Class<?> type) {
+		if (Collection.class.isAssignableFrom(type))
+			return COLLECTION;
+		else if (Supplier.class.isAssignableFrom(type))
+			return SUPPLIER;
+		else if (CompletionStage.class.isAssignableFrom(type))
+			return STAGE;
+		else
+			return OBJECT;
+	}
+
+	private static Class<?> invocationType(int kind) {
+		switch (kind) {
+		case LONG:
+			return long.class;
+		case DOUBLE:
+			return double.class;
+		case FLOAT:
+			return float.class;
+		case BOOLEAN:
+			return boolean.class;
+		case CHAR:
+			return char.class;
+		default:
+			return Object.class;
+		}
+	}
+
+}
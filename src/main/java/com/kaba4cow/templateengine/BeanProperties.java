@@ -0,0 +1,157 @@
+package com.kaba4cow.templateengine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The readable properties of a class, discovered once per class.
+ * <p>
+ * A property is read by a record component accessor, by a public {@code get} or {@code is} bean getter, or by a public,
+ * non-static field, in that order of precedence, as defined by {@link TemplateProperties}. No other method is ever
+ * invoked. Accessors are unreflected into {@code MethodHandle}s taking the object as an {@code Object}, so reading a
+ * property involves no reflection.
+ * </p>
+ */
+final class BeanProperties {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final ClassValue<BeanProperties> PROPERTIES = new ClassValue<BeanProperties>() {
+
+		@Override
+		protected BeanProperties computeValue(Class<?> type) {
+			return new BeanProperties(type);
+		}
+
+	};
+
+	private final Map<String, MethodHandle> accessors;
+
+	private BeanProperties(Class<?> type) {
+		Map<String, MethodHandle> fieldAccessors = new HashMap<>();
+		Map<String, MethodHandle> beanAccessors = new HashMap<>();
+		Map<String, MethodHandle> componentAccessors = new HashMap<>();
+		for (Field field : type.getFields()) {
+			if (Modifier.isStatic(field.getModifiers()))
+				continue;
+			MethodHandle accessor = unreflect(field);
+			if (accessor != null)
+				fieldAccessors.putIfAbsent(field.getName(), accessor);
+		}
+		Set<String> components = components(type);
+		for (Method method : type.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.getParameterCount() != 0
+					|| method.getReturnType() == void.class || method.getDeclaringClass() == Object.class)
+				continue;
+			String name = method.getName();
+			String property = TemplateProperties.propertyName(name, method.getReturnType() == boolean.class);
+			boolean component = components.contains(name) && method.getDeclaringClass() == type;
+			if (property == null && !component)
+				continue;
+			MethodHandle accessor = unreflect(type, method);
+			if (accessor == null)
+				continue;
+			if (component)
+				componentAccessors.put(name, accessor);
+			if (property != null)
+				beanAccessors.putIfAbsent(property, accessor);
+		}
+		this.accessors = new HashMap<>(fieldAccessors);
+		this.accessors.putAll(beanAccessors);
+		this.accessors.putAll(componentAccessors);
+	}
+
+	/**
+	 * Gets the properties of the specified class.
+	 * 
+	 * @param type the class
+	 * 
+	 * @return the properties of the class
+	 */
+	static BeanProperties forType(Class<?> type) {
+		return PROPERTIES.get(type);
+	}
+
+	/**
+	 * Gets the accessor of the specified property.
+	 * 
+	 * @param name the property name
+	 * 
+	 * @return a {@code MethodHandle} taking the object as an {@code Object} and returning the property with its declared
+	 *         type, or {@code null} if there is no such property
+	 */
+	MethodHandle accessor(String name) {
+		return accessors.get(name);
+	}
+
+	/**
+	 * Unreflects the specified method through its public declaration, so methods of non-public classes implementing
+	 * public interfaces can be invoked, falling back to suppressing access checks.
+	 */
+	private static MethodHandle unreflect(Class<?> type, Method method) {
+		Method declaration = publicDeclaration(type, method.getName());
+		try {
+			if (declaration == null) {
+				method.setAccessible(true);
+				declaration = method;
+			}
+			MethodHandle accessor = LOOKUP.unreflect(declaration);
+			return accessor.asType(MethodType.methodType(accessor.type().returnType(), Object.class));
+		} catch (IllegalAccessException | RuntimeException exception) {
+			return null;
+		}
+	}
+
+	private static MethodHandle unreflect(Field field) {
+		try {
+			if (!Modifier.isPublic(field.getDeclaringClass().getModifiers()))
+				field.setAccessible(true);
+			MethodHandle accessor = LOOKUP.unreflectGetter(field);
+			return accessor.asType(MethodType.methodType(accessor.type().returnType(), Object.class));
+		} catch (IllegalAccessException | RuntimeException exception) {
+			return null;
+		}
+	}
+
+	private static Method publicDeclaration(Class<?> type, String name) {
+		if (type == null)
+			return null;
+		if (Modifier.isPublic(type.getModifiers()))
+			try {
+				Method method = type.getMethod(name);
+				if (Modifier.isPublic(method.getDeclaringClass().getModifiers()))
+					return method;
+			} catch (NoSuchMethodException exception) {
+				return null;
+			}
+		Method method = publicDeclaration(type.getSuperclass(), name);
+		for (Class<?> interfaceType : type.getInterfaces())
+			if (method == null)
+				method = publicDeclaration(interfaceType, name);
+		return method;
+	}
+
+	/**
+	 * Gets the component names of the specified class if it is a record, which are the names of its instance fields.
+	 */
+	private static Set<String> components(Class<?> type) {
+		Class<?> superclass = type.getSuperclass();
+		if (superclass == null || !superclass.getName().equals(TemplateProperties.RECORD_CLASS_NAME))
+			return Collections.emptySet();
+		Set<String> components = new HashSet<>();
+		for (Field field : type.getDeclaredFields())
+			if (!Modifier.isStatic(field.getModifiers()))
+				components.add(field.getName());
+		return components;
+	}
+
+}
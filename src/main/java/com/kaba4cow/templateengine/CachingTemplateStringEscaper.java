@@ -0,0 +1,209 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@code TemplateStringEscaper} that remembers the results of another escaper for repeated values.
+ * <p>
+ * Escaped strings are cached by input string equality in a bounded cache, split into independently locked segments so
+ * that concurrent renders rarely contend. Each segment evicts its least recently used entries once full. Strings
+ * longer than the maximum length and strings that need no escaping are never cached.
+ * </p>
+ * <p>
+ * A {@code CachingTemplateStringEscaper} is safe to use from multiple threads, provided that the wrapped escaper is.
+ * </p>
+ */
+public class CachingTemplateStringEscaper implements TemplateStringEscaper {
+
+	/**
+	 * The default maximum number of cached strings.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+	/**
+	 * The default maximum length of cached strings.
+	 */
+	public static final int DEFAULT_MAXIMUM_LENGTH = 256;
+
+	private static final int MAXIMUM_SEGMENTS = 16;
+	private static final int MINIMUM_SEGMENT_SIZE = 32;
+
+	private final TemplateStringEscaper escaper;
+	private final int maximumLength;
+	private final Segment[] segments;
+	private final LongAdder hitCount;
+	private final LongAdder missCount;
+
+	/**
+	 * Creates a new {@code CachingTemplateStringEscaper} with the default maximum size and length.
+	 * 
+	 * @param escaper the escaper whose results to cache
+	 * 
+	 * @throws NullPointerException if {@code escaper} is {@code null}
+	 */
+	public CachingTemplateStringEscaper(TemplateStringEscaper escaper) {
+		this(escaper, DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_LENGTH);
+	}
+
+	/**
+	 * Creates a new {@code CachingTemplateStringEscaper}.
+	 * 
+	 * @param escaper       the escaper whose results to cache
+	 * @param maximumSize   the maximum number of cached strings
+	 * @param maximumLength the maximum length of cached strings
+	 * 
+	 * @throws NullPointerException     if {@code escaper} is {@code null}
+	 * @throws IllegalArgumentException if {@code maximumSize} or {@code maximumLength} is negative
+	 */
+	public CachingTemplateStringEscaper(TemplateStringEscaper escaper, int maximumSize, int maximumLength) {
+		if (maximumSize < 0)
+			throw new IllegalArgumentException(String.format("Maximum size %s is negative", maximumSize));
+		if (maximumLength < 0)
+			throw new IllegalArgumentException(String.format("Maximum length %s is negative", maximumLength));
+		this.escaper = Objects.requireNonNull(escaper);
+		this.maximumLength = maximumLength;
+		int segments = 1;
+		while (segments < MAXIMUM_SEGMENTS && segments * 2 * MINIMUM_SEGMENT_SIZE <= maximumSize)
+			segments *= 2;
+		this.segments = new Segment[segments];
+		for (int i = 0; i < segments; i++)
+			this.segments[i] = new Segment((maximumSize + segments - 1 - i) / segments);
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+	}
+
+	@Override
+	public String escape(String string) {
+		if (string.length() > maximumLength || !escaper.needsEscaping(string, 0, string.length()))
+			return escaper.escape(string);
+		Segment segment = segments[spread(string.hashCode()) & (segments.length - 1)];
+		String escaped = segment.get(string);
+		if (escaped != null) {
+			hitCount.increment();
+			return escaped;
+		}
+		missCount.increment();
+		escaped = escaper.escape(string);
+		segment.put(string, escaped);
+		return escaped;
+	}
+
+	@Override
+	public boolean needsEscaping(CharSequence source, int start, int end) {
+		return escaper.needsEscaping(source, start, end);
+	}
+
+	@Override
+	public void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+		if (end - start > maximumLength || !escaper.needsEscaping(source, start, end))
+			escaper.escape(source, start, end, output);
+		else if (source instanceof String && start == 0 && end == source.length())
+			output.append(escape((String) source));
+		else
+			output.append(escape(source.subSequence(start, end).toString()));
+	}
+
+	/**
+	 * Gets the number of cached strings.
+	 * 
+	 * @return the number of cached strings
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments)
+			size += segment.size();
+		return size;
+	}
+
+	/**
+	 * Removes all cached strings.
+	 */
+	public void clear() {
+		for (Segment segment : segments)
+			segment.clear();
+	}
+
+	/**
+	 * Gets the number of times an escaped string was found in the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long hitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Gets the number of times a string had to be escaped by the wrapped escaper and was then cached.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long missCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Gets the ratio of cache hits to cache lookups.
+	 * 
+	 * @return the hit rate between {@code 0.0} and {@code 1.0}, or {@code 1.0} if there were no lookups
+	 */
+	public double hitRate() {
+		long hits = hitCount();
+		long lookups = hits + missCount();
+		return lookups == 0L ? 1.0 : (double) hits / lookups;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ hash >>> 16;
+	}
+
+	/**
+	 * Returns a string representation of this {@code CachingTemplateStringEscaper}.
+	 * 
+	 * @return a string representation of the wrapped escaper and the cache statistics
+	 */
+	@Override
+	public String toString() {
+		return String.format("CachingTemplateStringEscaper [escaper=%s, size=%s, hits=%s, misses=%s]", escaper, size(),
+				hitCount(), missCount());
+	}
+
+	private static final class Segment {
+
+		private final Map<String, String> strings;
+
+		private Segment(int maximumSize) {
+			this.strings = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+					return size() > maximumSize;
+				}
+
+			};
+		}
+
+		private synchronized String get(String string) {
+			return strings.get(string);
+		}
+
+		private synchronized void put(String string, String escaped) {
+			strings.put(string, escaped);
+		}
+
+		private synchronized int size() {
+			return strings.size();
+		}
+
+		private synchronized void clear() {
+			strings.clear();
+		}
+
+	}
+
+}
@@ -0,0 +1,539 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * An immutable, pre-parsed template.
+ * <p>
+ * The template string is parsed once into static text segments, value placeholders and list placeholders. Rendering
+ * only walks the parsed segments, so a {@code CompiledTemplate} can be created once and rendered many times, including
+ * concurrently from multiple threads.
+ * </p>
+ * <p>
+ * Every distinct placeholder name is resolved to a slot index at compile time. Values and lists are bound per render
+ * through {@code TemplateBindings}, which stores them in arrays indexed by slot, so rendering involves no map lookups.
+ * </p>
+ * <p>
+ * A value placeholder named with a path, such as <code>{{order.customer.name}}</code>, is split at compile time, and
+ * its root name {@code order} is given a slot of its own. Unless a value is bound to the full name, the placeholder is
+ * resolved from the value bound to its root, reading one property or {@code Map} entry per name.
+ * </p>
+ * 
+ * @see TemplateBuilder#forTemplate(CompiledTemplate)
+ * @see TemplateBindings
+ */
+public final class CompiledTemplate {
+
+	private final String template;
+	private final TemplateSegment[] segments;
+	private final Map<String, Integer> valueSlots;
+	private final Map<String, Integer> listSlots;
+	private final List<String> valueNames;
+	private final List<String> listNames;
+	private final TemplatePath[] paths;
+	private final TemplateRenderer renderer;
+	private final ConcurrentMap<Class<?>, BeanBinder<?>> binders;
+	private volatile TemplateSegment[] parsedSegments;
+
+	private CompiledTemplate(String template, TemplateParser parser, boolean generate) {
+		this.template = template;
+		this.segments = parser.segments().toArray(new TemplateSegment[0]);
+		this.valueSlots = new HashMap<>(parser.valueSlots());
+		this.listSlots = new HashMap<>(parser.listSlots());
+		this.valueNames = Collections.unmodifiableList(new ArrayList<>(parser.valueSlots().keySet()));
+		this.listNames = Collections.unmodifiableList(new ArrayList<>(parser.listSlots().keySet()));
+		this.paths = paths(this.valueNames, this.valueSlots);
+		this.renderer = generate ? generateRenderer(segments) : null;
+		this.binders = new ConcurrentHashMap<>();
+	}
+
+	private CompiledTemplate(String template, TemplateRenderer renderer, String[] valueNames, String[] listNames) {
+		this.template = template;
+		this.segments = null;
+		this.valueSlots = slots(valueNames);
+		this.listSlots = slots(listNames);
+		this.valueNames = Collections.unmodifiableList(Arrays.asList(valueNames.clone()));
+		this.listNames = Collections.unmodifiableList(Arrays.asList(listNames.clone()));
+		this.paths = paths(this.valueNames, this.valueSlots);
+		this.renderer = renderer;
+		this.binders = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Parses the specified template string.
+	 * 
+	 * @param template the template string containing placeholders
+	 * 
+	 * @return a new instance of {@code CompiledTemplate}
+	 * 
+	 * @throws NullPointerException    if {@code template} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
+	 */
+	public static CompiledTemplate compile(String template) {
+		Objects.requireNonNull(template);
+		return new CompiledTemplate(template, new TemplateParser(template).parse(), false);
+	}
+
+	/**
+	 * Parses the specified template string and generates a renderer class for it.
+	 * <p>
+	 * The generated class renders the template with straight-line code: static text is appended from constants and
+	 * slot indices are inlined, instead of walking the parsed segments. The class is written directly as bytecode and
+	 * loaded by its own class loader, which costs some memory per template, so this is meant for frequently rendered
+	 * templates. It renders exactly the same output as a template returned by {@link #compile(String)}.
+	 * </p>
+	 * <p>
+	 * If the class cannot be generated, as when the template is too large for a class file or the runtime does not
+	 * allow defining classes, the template is rendered by walking its segments, exactly like a template returned by
+	 * {@link #compile(String)}, and {@link #isGenerated()} returns {@code false}.
+	 * </p>
+	 * 
+	 * @param template the template string containing placeholders
+	 * 
+	 * @return a new instance of {@code CompiledTemplate}
+	 * 
+	 * @throws NullPointerException    if {@code template} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
+	 * 
+	 * @see #isGenerated()
+	 */
+	public static CompiledTemplate compileGenerated(String template) {
+		Objects.requireNonNull(template);
+		return new CompiledTemplate(template, new TemplateParser(template).parse(), true);
+	}
+
+	/**
+	 * Creates a template rendered by a renderer class generated at build time, without parsing it.
+	 * 
+	 * @param template   the template string the renderer was generated from
+	 * @param renderer   the generated renderer
+	 * @param valueNames the value placeholder names in order of slot index
+	 * @param listNames  the list placeholder names in order of slot index
+	 * 
+	 * @return a new instance of {@code CompiledTemplate}
+	 */
+	static CompiledTemplate precompiled(String template, TemplateRenderer renderer, String[] valueNames,
+			String[] listNames) {
+		return new CompiledTemplate(template, renderer, valueNames, listNames);
+	}
+
+	/**
+	 * Gets the template string this {@code CompiledTemplate} was parsed from.
+	 * 
+	 * @return the template string
+	 */
+	public String template() {
+		return template;
+	}
+
+	/**
+	 * Checks whether this template is rendered by a generated renderer class.
+	 * 
+	 * @return {@code true} if a renderer class was generated for this template, {@code false} if it is rendered by
+	 *         walking its segments
+	 * 
+	 * @see #compileGenerated(String)
+	 */
+	public boolean isGenerated() {
+		return renderer != null;
+	}
+
+	/**
+	 * Gets the slot index of the specified value placeholder.
+	 * 
+	 * @param placeholder the name of the value placeholder
+	 * 
+	 * @return the slot index, or {@code -1} if the template has no such value placeholder
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public int valueSlot(String placeholder) {
+		Integer slot = valueSlots.get(Objects.requireNonNull(placeholder));
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Gets the slot index of the specified list placeholder.
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * 
+	 * @return the slot index, or {@code -1} if the template has no such list placeholder
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public int listSlot(String placeholder) {
+		Integer slot = listSlots.get(Objects.requireNonNull(placeholder));
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Gets the names of the value placeholders of the template, indexed by slot.
+	 * 
+	 * @return an unmodifiable list of value placeholder names
+	 */
+	public List<String> valueNames() {
+		return valueNames;
+	}
+
+	/**
+	 * Gets the names of the list placeholders of the template, indexed by slot.
+	 * 
+	 * @return an unmodifiable list of list placeholder names
+	 */
+	public List<String> listNames() {
+		return listNames;
+	}
+
+	/**
+	 * Gets a binder reading the properties of objects of the specified class, named after the placeholders of this
+	 * template.
+	 * <p>
+	 * A property is read by a record component accessor, by a {@code get} or {@code is} bean getter, or by a public
+	 * field, in that order of precedence; no other method is invoked. The accessors of a class are discovered once, and
+	 * the binder is created once per class and cached by this template, so binding involves no reflection. Bound
+	 * classes never keep a template in memory: its binders are released with it. Placeholders without a matching
+	 * property are left unbound. A {@code Map} has no properties: its entries are bound by
+	 * {@link TemplateBindings#bind(Object)} instead.
+	 * </p>
+	 * 
+	 * @param <T>  the type of the bound objects
+	 * @param type the class of the bound objects
+	 * 
+	 * @return the binder for the class
+	 * 
+	 * @throws NullPointerException     if {@code type} is {@code null}
+	 * @throws IllegalArgumentException if {@code type} is a {@code Map}
+	 * @throws TemplateEngineException  if the property of a list placeholder is not a {@code Collection},
+	 *                                  {@code Supplier} or {@code CompletionStage}
+	 * 
+	 * @see TemplateBindings#bind(Object)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> TemplateBinder<T> binder(Class<T> type) {
+		if (Map.class.isAssignableFrom(Objects.requireNonNull(type)))
+			throw new IllegalArgumentException("Maps are bound by key with TemplateBindings.bind(Object)");
+		BeanBinder<?> binder = binders.get(type);
+		if (binder == null) {
+			BeanBinder<?> created = new BeanBinder<>(this, type);
+			binder = binders.putIfAbsent(type, created);
+			if (binder == null)
+				binder = created;
+		}
+		return (TemplateBinder<T>) binder;
+	}
+
+	/**
+	 * Creates new, empty bindings for this template.
+	 * 
+	 * @return a new instance of {@code TemplateBindings}
+	 */
+	public TemplateBindings newBindings() {
+		return new TemplateBindings(this, valueNames.size(), listNames.size());
+	}
+
+	/**
+	 * Renders the template with no escaping.
+	 * 
+	 * @param bindings the values and lists bound to placeholders
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException     if {@code bindings} is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 * @throws TemplateEngineException  if a placeholder is not provided
+	 */
+	public String render(TemplateBindings bindings) {
+		return render(bindings, new DefaultTemplateStringEscaper());
+	}
+
+	/**
+	 * Renders the template with the specified escaping strategy.
+	 * 
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException     if {@code bindings} or {@code escaper} is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 * @throws TemplateEngineException  if a placeholder is not provided
+	 */
+	public String render(TemplateBindings bindings, TemplateStringEscaper escaper) {
+		StringBuilder result = new StringBuilder(template.length());
+		try {
+			renderTo(result, bindings, escaper);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Renders the template directly into the specified output.
+	 * <p>
+	 * Static text, escaped values and formatted lists are appended to {@code output} as they are rendered, so the
+	 * complete result is never held in memory. Any {@code Appendable} can be used, including a {@code Writer}.
+	 * </p>
+	 * 
+	 * @param output   the output to render into
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * 
+	 * @throws NullPointerException     if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 * @throws IOException              if the output cannot be written to
+	 * @throws TemplateEngineException  if a placeholder is not provided
+	 */
+	public void renderTo(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper)
+			throws IOException {
+		Objects.requireNonNull(output);
+		Objects.requireNonNull(escaper);
+		checkBindings(bindings);
+		bindings.reset();
+		renderSegments(output, bindings, escaper);
+	}
+
+	/**
+	 * Renders the template into the specified reusable buffer.
+	 * <p>
+	 * The rendered output is appended to {@code buffer}, which only grows when the output does not fit. Once the buffer
+	 * is large enough, rendering static text and {@code String} values performs no allocations, so a buffer and
+	 * bindings reused across renders give an allocation-free steady state.
+	 * </p>
+	 * 
+	 * @param buffer   the buffer to render into
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * 
+	 * @throws NullPointerException     if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 * @throws TemplateEngineException  if a placeholder is not provided
+	 */
+	public void renderTo(TemplateBuffer buffer, TemplateBindings bindings, TemplateStringEscaper escaper) {
+		try {
+			renderTo((Appendable) buffer, bindings, escaper);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Renders the template asynchronously, once all values and lists bound with a {@code CompletionStage} have completed.
+	 * <p>
+	 * Bound stages are waited for and bound suppliers are invoked concurrently, the suppliers with the specified
+	 * executor, so the render is delayed by the slowest binding rather than by all of them in turn. The template is then
+	 * rendered with the same executor. The calling thread never blocks.
+	 * </p>
+	 * <p>
+	 * The bindings must not be modified until the returned future completes.
+	 * </p>
+	 * 
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * @param executor the executor to invoke suppliers and render the template with
+	 * 
+	 * @return a future completing with the rendered template, or exceptionally if a binding fails or a placeholder is
+	 *         not provided
+	 * 
+	 * @throws NullPointerException     if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 */
+	public CompletableFuture<String> renderAsync(TemplateBindings bindings, TemplateStringEscaper escaper,
+			Executor executor) {
+		Objects.requireNonNull(escaper);
+		Objects.requireNonNull(executor);
+		checkBindings(bindings);
+		bindings.reset();
+		return bindings.resolve(executor).thenApplyAsync(resolved -> {
+			StringBuilder result = new StringBuilder(template.length());
+			try {
+				renderSegments(result, bindings, escaper);
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+			return result.toString();
+		}, executor);
+	}
+
+	/**
+	 * Renders the template asynchronously into the specified output, streaming it in order as bindings complete.
+	 * <p>
+	 * All values and lists bound with a {@code CompletionStage} or a {@code Supplier} are resolved concurrently, the
+	 * suppliers with the specified executor. Meanwhile, the template is written to {@code output} from the start up to
+	 * the first placeholder whose value is still pending, and the output is flushed if it is {@code Flushable}. Each
+	 * time that value completes, rendering resumes with the executor up to the next pending placeholder. The beginning
+	 * of the template thus reaches the output right away, while values further down are still being computed.
+	 * </p>
+	 * <p>
+	 * Neither the output nor the bindings may be used otherwise until the returned future completes.
+	 * </p>
+	 * 
+	 * @param output   the output to render into
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * @param executor the executor to invoke suppliers and resume rendering with
+	 * 
+	 * @return a future completing once the whole template has been written, or exceptionally if a binding fails, a
+	 *         placeholder is not provided or the output cannot be written to
+	 * 
+	 * @throws NullPointerException     if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 */
+	public CompletableFuture<Void> renderToAsync(Appendable output, TemplateBindings bindings,
+			TemplateStringEscaper escaper, Executor executor) {
+		Objects.requireNonNull(output);
+		Objects.requireNonNull(escaper);
+		Objects.requireNonNull(executor);
+		checkBindings(bindings);
+		return new StreamingRender(segments(), output, bindings, escaper, executor).start();
+	}
+
+	/**
+	 * Renders the template with no escaping.
+	 * 
+	 * @param values the values for value placeholders
+	 * @param lists  the lists for list placeholders
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException    if {@code values} or {@code lists} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 */
+	public String render(Map<String, ?> values, Map<String, ? extends Collection<?>> lists) {
+		return render(bind(values, lists));
+	}
+
+	/**
+	 * Renders the template with the specified escaping strategy.
+	 * 
+	 * @param values  the values for value placeholders
+	 * @param lists   the lists for list placeholders
+	 * @param escaper the escaping strategy for placeholder values
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException    if {@code values}, {@code lists} or {@code escaper} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 */
+	public String render(Map<String, ?> values, Map<String, ? extends Collection<?>> lists,
+			TemplateStringEscaper escaper) {
+		return render(bind(values, lists), escaper);
+	}
+
+	/**
+	 * Renders the template directly into the specified output.
+	 * 
+	 * @param output  the output to render into
+	 * @param values  the values for value placeholders
+	 * @param lists   the lists for list placeholders
+	 * @param escaper the escaping strategy for placeholder values
+	 * 
+	 * @throws NullPointerException    if any of the arguments is {@code null}
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 * 
+	 * @see #renderTo(Appendable, TemplateBindings, TemplateStringEscaper)
+	 */
+	public void renderTo(Appendable output, Map<String, ?> values, Map<String, ? extends Collection<?>> lists,
+			TemplateStringEscaper escaper) throws IOException {
+		renderTo(output, bind(values, lists), escaper);
+	}
+
+	private void checkBindings(TemplateBindings bindings) {
+		if (bindings.template() != this)
+			throw new IllegalArgumentException("Bindings belong to another template");
+	}
+
+	private void renderSegments(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper)
+			throws IOException {
+		if (renderer != null) {
+			renderer.render(output, bindings, escaper);
+			return;
+		}
+		for (TemplateSegment segment : segments)
+			segment.render(output, bindings, escaper);
+	}
+
+	/**
+	 * Gets the parsed segments of this template. A template precompiled at build time is parsed on first use.
+	 */
+	TemplateSegment[] segments() {
+		if (segments != null)
+			return segments;
+		TemplateSegment[] parsed = parsedSegments;
+		if (parsed == null)
+			parsedSegments = parsed = new TemplateParser(template).parse().segments().toArray(new TemplateSegment[0]);
+		return parsed;
+	}
+
+	/**
+	 * Gets the paths of the value placeholders, indexed by slot, with {@code null} for placeholders that are not paths.
+	 */
+	TemplatePath[] paths() {
+		return paths;
+	}
+
+	private static TemplatePath[] paths(List<String> valueNames, Map<String, Integer> valueSlots) {
+		TemplatePath[] paths = new TemplatePath[valueNames.size()];
+		for (int slot = 0; slot < paths.length; slot++) {
+			String root = TemplateProperties.pathRoot(valueNames.get(slot));
+			Integer rootSlot = root == null ? null : valueSlots.get(root);
+			if (rootSlot != null)
+				paths[slot] = new TemplatePath(valueNames.get(slot), rootSlot);
+		}
+		return paths;
+	}
+
+	private static TemplateRenderer generateRenderer(TemplateSegment[] segments) {
+		try {
+			return TemplateRendererCompiler.compile(segments);
+		} catch (TemplateEngineException | SecurityException | LinkageError exception) {
+			return null;
+		}
+	}
+
+	private static Map<String, Integer> slots(String[] names) {
+		Map<String, Integer> slots = new HashMap<>();
+		for (int slot = 0; slot < names.length; slot++)
+			slots.put(names[slot], slot);
+		return slots;
+	}
+
+
+	private TemplateBindings bind(Map<String, ?> values, Map<String, ? extends Collection<?>> lists) {
+		Objects.requireNonNull(values);
+		Objects.requireNonNull(lists);
+		TemplateBindings bindings = newBindings();
+		for (int slot = 0; slot < valueNames.size(); slot++)
+			if (values.containsKey(valueNames.get(slot)))
+				bindings.value(slot, values.get(valueNames.get(slot)));
+		for (int slot = 0; slot < listNames.size(); slot++)
+			if (lists.containsKey(listNames.get(slot)))
+				bindings.list(slot, lists.get(listNames.get(slot)));
+		return bindings;
+	}
+
+	/**
+	 * Returns a string representation of this {@code CompiledTemplate}.
+	 * 
+	 * @return a string representation of the parsed template
+	 */
+	@Override
+	public String toString() {
+		return String.format("CompiledTemplate [template=%s]", template);
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.kaba4cow.templateengine;
 
+import java.io.IOException;
+
 /**
  * Default implementation of {@code TemplateStringEscaper} that performs no escaping.
  */
@@ -12,4 +14,14 @@ public class DefaultTemplateStringEscaper implements TemplateStringEscaper {
 		return string;
 	}
 
+	@Override
+	public boolean needsEscaping(CharSequence source, int start, int end) {
+		return false;
+	}
+
+	@Override
+	public void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+		output.append(source, start, end);
+	}
+
 }
@@ -0,0 +1,40 @@
+package com.kaba4cow.templateengine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A value or list that is not known when it is bound, but only when its placeholder is rendered.
+ * 
+ * @see LazyValue
+ * @see AsyncValue
+ */
+abstract class DeferredValue {
+
+	/**
+	 * Gets the value, waiting for it or computing it if needed.
+	 */
+	abstract Object get();
+
+	/**
+	 * Forgets the value obtained during a previous render.
+	 */
+	abstract void reset();
+
+	/**
+	 * Starts resolving the value without blocking the calling thread.
+	 * 
+	 * @param executor the executor to compute the value with, if it needs computing
+	 * 
+	 * @return a future completed once {@link #get()} no longer blocks
+	 */
+	abstract CompletableFuture<?> resolve(Executor executor);
+
+	/**
+	 * Gets the future that {@link #get()} waits for.
+	 * 
+	 * @return the future of the value, or {@code null} if {@link #get()} computes the value itself
+	 */
+	abstract CompletableFuture<?> pending();
+
+}
@@ -0,0 +1,53 @@
+package com.kaba4cow.templateengine;
+
+import java.util.IllegalFormatException;
+
+/**
+ * A value bound with a format string, formatted only when its placeholder is rendered.
+ * 
+ * @see TemplateFormat
+ */
+final class FormattedValue {
+
+	private final String placeholder;
+	private final TemplateFormat format;
+	private final Object[] args;
+
+	/**
+	 * Creates a new {@code FormattedValue}.
+	 * 
+	 * @param placeholder the name of the placeholder, reported if the value cannot be formatted
+	 * @param format      the format
+	 * @param args        the format arguments, copied so later changes to the array do not affect the value; a
+	 *                    {@code null} array formats {@code null} for every specifier, like {@code String.format} does
+	 */
+	FormattedValue(String placeholder, TemplateFormat format, Object[] args) {
+		this.placeholder = placeholder;
+		this.format = format;
+		this.args = args == null ? null : args.clone();
+	}
+
+	/**
+	 * Formats this value into the specified builder.
+	 * 
+	 * @param builder the builder to append to
+	 * 
+	 * @throws TemplateEngineException if an argument does not match its specifier
+	 */
+	void formatTo(StringBuilder builder) {
+		try {
+			format.formatTo(builder, args);
+		} catch (IllegalFormatException exception) {
+			throw new TemplateEngineException(exception, "Value %s cannot be formatted with %s: %s", placeholder,
+					format.format(), exception.getMessage());
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		formatTo(builder);
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.kaba4cow.templateengine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A value or list bound with a supplier, supplied only when its placeholder is rendered.
+ * <p>
+ * The supplied value is remembered until the next render, so a placeholder that appears several times in a template is
+ * supplied at most once per render.
+ * </p>
+ */
+final class LazyValue extends DeferredValue {
+
+	private final Supplier<?> supplier;
+	private Object value;
+	private boolean supplied;
+	private CompletableFuture<?> resolution;
+
+	LazyValue(Supplier<?> supplier) {
+		this.supplier = supplier;
+		this.value = null;
+		this.supplied = false;
+		this.resolution = null;
+	}
+
+	@Override
+	Object get() {
+		if (resolution != null)
+			return resolution.join();
+		if (!supplied) {
+			value = supplier.get();
+			supplied = true;
+		}
+		return value;
+	}
+
+	@Override
+	void reset() {
+		value = null;
+		supplied = false;
+		resolution = null;
+	}
+
+	@Override
+	CompletableFuture<?> resolve(Executor executor) {
+		if (resolution == null)
+			resolution = supplied ? CompletableFuture.completedFuture(value)
+					: CompletableFuture.supplyAsync(supplier, executor);
+		return resolution;
+	}
+
+	@Override
+	CompletableFuture<?> pending() {
+		return resolution;
+	}
+
+	@Override
+	public String toString() {
+		if (resolution != null)
+			return resolution.isDone() && !resolution.isCompletedExceptionally() ? String.valueOf(resolution.join())
+					: "<not supplied>";
+		return supplied ? String.valueOf(value) : "<not supplied>";
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The index of template resources precompiled at build time, mapping resource names to generated renderer classes.
+ * <p>
+ * Index files are written by the {@code template-engine-processor} annotation processor. Every index file visible to
+ * the class loader of the library is read once, on first use, and the template of every generated class is looked up
+ * once, the first time its resource is requested.
+ * </p>
+ * 
+ * @see PrecompiledTemplates
+ */
+final class PrecompiledTemplateIndex {
+
+	private PrecompiledTemplateIndex() {}
+
+	/**
+	 * Gets the precompiled template generated from the specified resource.
+	 * 
+	 * @param resourceName the name of the template resource
+	 * 
+	 * @return the precompiled template, or {@code null} if the resource was not precompiled
+	 * 
+	 * @throws TemplateEngineException if the generated class of the resource cannot be loaded
+	 */
+	static CompiledTemplate find(String resourceName) {
+		CompiledTemplate template = Holder.TEMPLATES.get(resourceName);
+		if (template != null)
+			return template;
+		String className = Holder.CLASS_NAMES.get(resourceName);
+		if (className == null)
+			return null;
+		try {
+			Class<?> type = Class.forName(className, true, PrecompiledTemplateIndex.class.getClassLoader());
+			template = (CompiledTemplate) type.getField("TEMPLATE").get(null);
+			Holder.TEMPLATES.putIfAbsent(resourceName, template);
+			return template;
+		} catch (ReflectiveOperationException | LinkageError exception) {
+			throw new TemplateEngineException("Precompiled template %s of resource %s cannot be loaded: %s", className,
+					resourceName, exception);
+		}
+	}
+
+	private static Map<String, String> read(ClassLoader classLoader) {
+		if (classLoader == null)
+			return Collections.emptyMap();
+		Map<String, String> classNames = new HashMap<>();
+		try {
+			Enumeration<URL> indexes = classLoader.getResources(PrecompiledTemplates.INDEX_RESOURCE);
+			while (indexes.hasMoreElements()) {
+				Properties index = new Properties();
+				try (InputStream input = indexes.nextElement().openStream()) {
+					index.load(input);
+				}
+				for (String resourceName : index.stringPropertyNames())
+					classNames.putIfAbsent(resourceName, index.getProperty(resourceName));
+			}
+		} catch (IOException exception) {
+			throw new RuntimeException("Could not load precompiled template index", exception);
+		}
+		return classNames;
+	}
+
+	private static final class Holder {
+
+		private static final Map<String, String> CLASS_NAMES = read(PrecompiledTemplateIndex.class.getClassLoader());
+		private static final ConcurrentMap<String, CompiledTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.kaba4cow.templateengine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lists template resources to precompile at build time with the {@code template-engine-processor} annotation
+ * processor.
+ * <p>
+ * For every resource, the processor validates the template and generates a renderer class in the package of the
+ * annotated element, so that missing formats, unclosed placeholders and invalid list formatters fail the build. The
+ * class is named after the resource file, in upper camel case and followed by {@code Template}: the resource
+ * {@code templates/order-confirmation.html} becomes {@code OrderConfirmationTemplate}. Its
+ * {@code public static final CompiledTemplate TEMPLATE} field holds the template, created without parsing.
+ * </p>
+ * <p>
+ * The processor also records the generated classes in an index, through which
+ * {@link TemplateBuilder#forResource(String)} returns precompiled templates instead of reading and parsing the
+ * resources.
+ * </p>
+ * 
+ * <pre>
+ * &#64;PrecompiledTemplates({ "templates/welcome.txt", "templates/order-confirmation.html" })
+ * public class Mailer {
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.TYPE, ElementType.PACKAGE })
+public @interface PrecompiledTemplates {
+
+	/**
+	 * The name of the index resources mapping precompiled template resources to their generated classes.
+	 */
+	String INDEX_RESOURCE = "META-INF/com.kaba4cow.templateengine/precompiled-templates.properties";
+
+	/**
+	 * The names of the template resources, as passed to {@link TemplateBuilder#forResource(String)}.
+	 * 
+	 * @return the resource names
+	 */
+	String[] value();
+
+}
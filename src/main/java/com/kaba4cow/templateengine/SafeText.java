@@ -0,0 +1,78 @@
+package com.kaba4cow.templateengine;
+
+import java.util.Objects;
+
+/**
+ * Text that is already safe for the output context and is rendered without escaping.
+ * <p>
+ * Values and list elements of this type bypass the configured {@code TemplateStringEscaper} and are appended to the
+ * output as is. Use it for values escaped upstream or for fragments rendered by another template.
+ * </p>
+ * 
+ * @see TemplateBuilder#rawValue(String, CharSequence)
+ */
+public final class SafeText implements CharSequence {
+
+	private final CharSequence text;
+
+	private SafeText(CharSequence text) {
+		this.text = Objects.requireNonNull(text);
+	}
+
+	/**
+	 * Marks the specified text as safe.
+	 * 
+	 * @param text the text that needs no escaping
+	 * 
+	 * @return a new instance of {@code SafeText}
+	 * 
+	 * @throws NullPointerException if {@code text} is {@code null}
+	 */
+	public static SafeText of(CharSequence text) {
+		return new SafeText(text);
+	}
+
+	/**
+	 * Gets the text that needs no escaping.
+	 * 
+	 * @return the text
+	 */
+	public CharSequence text() {
+		return text;
+	}
+
+	@Override
+	public int length() {
+		return text.length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return text.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return text.subSequence(start, end);
+	}
+
+	@Override
+	public int hashCode() {
+		return text.toString().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (!(object instanceof SafeText))
+			return false;
+		return Objects.equals(text.toString(), ((SafeText) object).text.toString());
+	}
+
+	@Override
+	public String toString() {
+		return text.toString();
+	}
+
+}
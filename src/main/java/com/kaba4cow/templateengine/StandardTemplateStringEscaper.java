@@ -0,0 +1,183 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Enumeration of built-in {@code TemplateStringEscaper}s for common output contexts.
+ * <p>
+ * Every escaper makes a single pass over its input, looking up each character in a precomputed table, and copies runs
+ * of characters that need no escaping to the output in bulk. Input that needs no escaping is returned or appended as
+ * is.
+ * </p>
+ */
+public enum StandardTemplateStringEscaper implements TemplateStringEscaper {
+
+	/**
+	 * Escapes {@code & < > " '} for HTML text and quoted attribute values.
+	 */
+	HTML(replacements('&', "&amp;", '<', "&lt;", '>', "&gt;", '"', "&quot;", '\'', "&#39;")),
+	/**
+	 * Escapes {@code & < > " '} and line breaks and tabs for XML attribute values, so that they survive attribute value
+	 * normalization.
+	 */
+	XML_ATTRIBUTE(replacements('&', "&amp;", '<', "&lt;", '>', "&gt;", '"', "&quot;", '\'', "&apos;", '\t', "&#9;",
+			'\n', "&#10;", '\r', "&#13;")),
+	/**
+	 * Escapes quotes, backslashes and control characters for the contents of a JSON string.
+	 */
+	JSON(jsonReplacements()),
+	/**
+	 * Quotes a CSV field if it contains a comma, a quote or a line break, doubling any quotes, as specified by RFC 4180.
+	 */
+	CSV(replacements(',', ",", '"', "\"\"", '\n', "\n", '\r', "\r")) {
+
+		@Override
+		public void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+			if (!needsEscaping(source, start, end)) {
+				output.append(source, start, end);
+				return;
+			}
+			output.append('"');
+			super.escape(source, start, end, output);
+			output.append('"');
+		}
+
+	},
+	/**
+	 * Percent-encodes everything but unreserved characters for a URL path segment or query component, as specified by
+	 * RFC 3986. Characters outside of ASCII are encoded as UTF-8.
+	 */
+	URL(urlReplacements()) {
+
+		@Override
+		public boolean needsEscaping(CharSequence source, int start, int end) {
+			for (int i = start; i < end; i++)
+				if (replacement(source.charAt(i)) != null || source.charAt(i) >= ASCII)
+					return true;
+			return false;
+		}
+
+		@Override
+		public void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+			int runStart = start;
+			for (int i = start; i < end; i++) {
+				char c = source.charAt(i);
+				if (c < ASCII && replacement(c) == null)
+					continue;
+				output.append(source, runStart, i);
+				if (c < ASCII)
+					output.append(replacement(c));
+				else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(source.charAt(i + 1)))
+					appendUtf8(output, Character.toCodePoint(c, source.charAt(++i)));
+				else if (Character.isSurrogate(c))
+					appendUtf8(output, REPLACEMENT_CHARACTER);
+				else
+					appendUtf8(output, c);
+				runStart = i + 1;
+			}
+			output.append(source, runStart, end);
+		}
+
+		private void appendUtf8(Appendable output, int codePoint) throws IOException {
+			if (codePoint < 0x800) {
+				appendByte(output, 0xC0 | codePoint >> 6);
+			} else if (codePoint < 0x10000) {
+				appendByte(output, 0xE0 | codePoint >> 12);
+				appendByte(output, 0x80 | codePoint >> 6 & 0x3F);
+			} else {
+				appendByte(output, 0xF0 | codePoint >> 18);
+				appendByte(output, 0x80 | codePoint >> 12 & 0x3F);
+				appendByte(output, 0x80 | codePoint >> 6 & 0x3F);
+			}
+			appendByte(output, 0x80 | codePoint & 0x3F);
+		}
+
+		private void appendByte(Appendable output, int value) throws IOException {
+			output.append('%');
+			output.append(HEX_DIGITS[value >> 4 & 0xF]);
+			output.append(HEX_DIGITS[value & 0xF]);
+		}
+
+	};
+
+	private static final int ASCII = 128;
+	private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private final String[] replacements;
+
+	StandardTemplateStringEscaper(String[] replacements) {
+		this.replacements = replacements;
+	}
+
+	@Override
+	public String escape(String string) {
+		if (!needsEscaping(string, 0, string.length()))
+			return string;
+		StringBuilder builder = new StringBuilder(string.length() + 16);
+		try {
+			escape(string, 0, string.length(), builder);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public boolean needsEscaping(CharSequence source, int start, int end) {
+		for (int i = start; i < end; i++)
+			if (replacement(source.charAt(i)) != null)
+				return true;
+		return false;
+	}
+
+	@Override
+	public void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+		int runStart = start;
+		for (int i = start; i < end; i++) {
+			String replacement = replacement(source.charAt(i));
+			if (replacement != null) {
+				output.append(source, runStart, i);
+				output.append(replacement);
+				runStart = i + 1;
+			}
+		}
+		output.append(source, runStart, end);
+	}
+
+	String replacement(char c) {
+		return c < replacements.length ? replacements[c] : null;
+	}
+
+	private static String[] replacements(Object... pairs) {
+		String[] replacements = new String[ASCII];
+		for (int i = 0; i < pairs.length; i += 2)
+			replacements[(Character) pairs[i]] = (String) pairs[i + 1];
+		return replacements;
+	}
+
+	private static String[] jsonReplacements() {
+		String[] replacements = new String[ASCII];
+		for (char c = 0; c < 0x20; c++)
+			replacements[c] = String.format("\\u%04x", (int) c);
+		replacements['\b'] = "\\b";
+		replacements['\t'] = "\\t";
+		replacements['\n'] = "\\n";
+		replacements['\f'] = "\\f";
+		replacements['\r'] = "\\r";
+		replacements['"'] = "\\\"";
+		replacements['\\'] = "\\\\";
+		return replacements;
+	}
+
+	private static String[] urlReplacements() {
+		String[] replacements = new String[ASCII];
+		for (char c = 0; c < ASCII; c++)
+			if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '.'
+					|| c == '_' || c == '~'))
+				replacements[c] = String.format("%%%02X", (int) c);
+		return replacements;
+	}
+
+}
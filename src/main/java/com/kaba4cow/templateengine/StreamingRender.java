@@ -0,0 +1,89 @@
+package com.kaba4cow.templateengine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A single asynchronous render that streams segments to the output in template order, as soon as they and all
+ * segments before them can be rendered.
+ * <p>
+ * Rendering proceeds on whichever thread is current until it reaches a placeholder whose value is still pending. The
+ * output is then flushed, and rendering resumes with the executor once that value completes. Segments after the
+ * pending placeholder are not rendered ahead of time; their values keep resolving concurrently.
+ * </p>
+ * <p>
+ * Every failure completes the result exceptionally, including the executor rejecting a supplier or the resumption of
+ * the render, so the result always completes.
+ * </p>
+ */
+final class StreamingRender {
+
+	private final TemplateSegment[] segments;
+	private final Appendable output;
+	private final TemplateBindings bindings;
+	private final TemplateStringEscaper escaper;
+	private final Executor executor;
+	private final CompletableFuture<Void> result;
+
+	StreamingRender(TemplateSegment[] segments, Appendable output, TemplateBindings bindings,
+			TemplateStringEscaper escaper, Executor executor) {
+		this.segments = segments;
+		this.output = output;
+		this.bindings = bindings;
+		this.escaper = escaper;
+		this.executor = executor;
+		this.result = new CompletableFuture<>();
+	}
+
+	/**
+	 * Starts the render.
+	 * 
+	 * @return a future completing once the last segment has been written and the output flushed
+	 */
+	CompletableFuture<Void> start() {
+		try {
+			bindings.reset();
+			bindings.resolve(executor);
+		} catch (RuntimeException exception) {
+			result.completeExceptionally(exception);
+			return result;
+		}
+		renderFrom(0);
+		return result;
+	}
+
+	private void renderFrom(int index) {
+		try {
+			for (; index < segments.length; index++) {
+				CompletableFuture<?> pending = segments[index].pending(bindings);
+				if (pending != null && !pending.isDone()) {
+					flush();
+					int resumeIndex = index;
+					pending.whenComplete((value, exception) -> resumeFrom(resumeIndex));
+					return;
+				}
+				segments[index].render(output, bindings, escaper);
+			}
+			flush();
+			result.complete(null);
+		} catch (IOException | RuntimeException exception) {
+			result.completeExceptionally(exception);
+		}
+	}
+
+	private void resumeFrom(int index) {
+		try {
+			executor.execute(() -> renderFrom(index));
+		} catch (RuntimeException exception) {
+			result.completeExceptionally(exception);
+		}
+	}
+
+	private void flush() throws IOException {
+		if (output instanceof Flushable)
+			((Flushable) output).flush();
+	}
+
+}
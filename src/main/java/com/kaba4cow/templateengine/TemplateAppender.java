@@ -0,0 +1,118 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Appends placeholder values and list elements to rendered output.
+ */
+final class TemplateAppender {
+
+	private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(StringBuilder::new);
+
+	private TemplateAppender() {}
+
+	/**
+	 * Appends the value bound to the specified slot, escaped with the specified escaper.
+	 * <p>
+	 * Primitive values are formatted into a per-thread buffer, without being boxed or converted to a {@code String}.
+	 * </p>
+	 * 
+	 * @param output   the output to append to
+	 * @param bindings the bindings holding the value
+	 * @param slot     the slot index of the value
+	 * @param escaper  the escaping strategy for the value
+	 * 
+	 * @throws IOException if the output cannot be written to
+	 */
+	static void appendValue(Appendable output, TemplateBindings bindings, int slot, TemplateStringEscaper escaper)
+			throws IOException {
+		Object value = bindings.value(slot);
+		if (value instanceof TemplatePrimitive) {
+			StringBuilder builder = acquireBuffer();
+			try {
+				((TemplatePrimitive) value).appendTo(builder, bindings.primitive(slot));
+				escaper.escape(builder, 0, builder.length(), output);
+			} finally {
+				BUFFERS.set(builder);
+			}
+		} else
+			appendEscaped(output, value, escaper);
+	}
+
+	/**
+	 * Appends the value bound to the specified slot, formatted with the specified format and escaped with the specified
+	 * escaper. {@code SafeText} is appended without formatting or escaping.
+	 * 
+	 * @param output   the output to append to
+	 * @param bindings the bindings holding the value
+	 * @param slot     the slot index of the value
+	 * @param format   the format of the value
+	 * @param escaper  the escaping strategy for the value
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if the value cannot be formatted with the format
+	 */
+	static void appendFormatted(Appendable output, TemplateBindings bindings, int slot, TemplateValueFormat format,
+			TemplateStringEscaper escaper) throws IOException {
+		Object value = bindings.boxedValue(slot);
+		if (value instanceof SafeText) {
+			output.append(((SafeText) value).text());
+			return;
+		}
+		if (value instanceof FormattedValue)
+			value = value.toString();
+		StringBuilder builder = acquireBuffer();
+		try {
+			format.formatTo(builder, bindings.template().valueNames().get(slot), value);
+			escaper.escape(builder, 0, builder.length(), output);
+		} finally {
+			BUFFERS.set(builder);
+		}
+	}
+
+	/**
+	 * Appends the string representation of the specified value, escaped with the specified escaper.
+	 * <p>
+	 * Character sequences are escaped in place, without converting them to a {@code String} first. {@code SafeText} is
+	 * appended without escaping. Formatted values are formatted into a per-thread buffer.
+	 * </p>
+	 * 
+	 * @param output  the output to append to
+	 * @param value   the value to append
+	 * @param escaper the escaping strategy for the value
+	 * 
+	 * @throws IOException if the output cannot be written to
+	 */
+	static void appendEscaped(Appendable output, Object value, TemplateStringEscaper escaper) throws IOException {
+		if (value instanceof SafeText) {
+			output.append(((SafeText) value).text());
+			return;
+		}
+		if (value instanceof FormattedValue) {
+			StringBuilder builder = acquireBuffer();
+			try {
+				((FormattedValue) value).formatTo(builder);
+				escaper.escape(builder, 0, builder.length(), output);
+			} finally {
+				BUFFERS.set(builder);
+			}
+			return;
+		}
+		CharSequence sequence = value instanceof CharSequence ? (CharSequence) value : Objects.toString(value);
+		escaper.escape(sequence, 0, sequence.length(), output);
+	}
+
+	/**
+	 * Takes the per-thread buffer, leaving a fresh buffer for nested renders on the same thread until it is put back.
+	 */
+	private static StringBuilder acquireBuffer() {
+		StringBuilder builder = BUFFERS.get();
+		if (builder == null)
+			return new StringBuilder();
+		BUFFERS.set(null);
+		builder.setLength(0);
+		return builder;
+	}
+
+}
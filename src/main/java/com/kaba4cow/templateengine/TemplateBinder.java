@@ -0,0 +1,64 @@
+package com.kaba4cow.templateengine;
+
+/**
+ * Interface for binding the properties of an object to the placeholders of a template.
+ * <p>
+ * Implementations are generated at build time for types annotated with {@link TemplateModel}; they bind by slot
+ * index, without reflection or placeholder name lookups. For other types, {@link CompiledTemplate#binder(Class)}
+ * returns an implementation invoking accessors discovered at runtime.
+ * </p>
+ * 
+ * @param <T> the type of the bound objects
+ * 
+ * @see TemplateBuilder#bind(TemplateBinder, Object)
+ */
+public interface TemplateBinder<T> {
+
+	/**
+	 * Gets the template this binder binds to.
+	 * 
+	 * @return the compiled template
+	 */
+	public CompiledTemplate template();
+
+	/**
+	 * Binds the properties of the specified object to the placeholders of the template.
+	 * 
+	 * @param source   the object to bind
+	 * @param bindings the bindings to write to
+	 * 
+	 * @throws NullPointerException     if {@code source} or {@code bindings} is {@code null}
+	 * @throws IllegalArgumentException if {@code bindings} belong to another template
+	 */
+	public void bind(T source, TemplateBindings bindings);
+
+	/**
+	 * Renders the template with the properties of the specified object and no escaping.
+	 * 
+	 * @param source the object to bind
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException if {@code source} is {@code null}
+	 */
+	public default String render(T source) {
+		return render(source, new DefaultTemplateStringEscaper());
+	}
+
+	/**
+	 * Renders the template with the properties of the specified object and the specified escaping strategy.
+	 * 
+	 * @param source  the object to bind
+	 * @param escaper the escaping strategy for placeholder values
+	 * 
+	 * @return the rendered template as a {@code String}
+	 * 
+	 * @throws NullPointerException if {@code source} or {@code escaper} is {@code null}
+	 */
+	public default String render(T source, TemplateStringEscaper escaper) {
+		TemplateBindings bindings = template().newBindings();
+		bind(source, bindings);
+		return template().render(bindings, escaper);
+	}
+
+}
@@ -0,0 +1,657 @@
+package com.kaba4cow.templateengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Values and lists bound to the placeholders of a {@code CompiledTemplate}.
+ * <p>
+ * Placeholder names are resolved to slot indices when the template is compiled, and bound values are stored in plain
+ * arrays indexed by slot. Binding by slot index, as returned by {@link CompiledTemplate#valueSlot(String)} and
+ * {@link CompiledTemplate#listSlot(String)}, involves no hashing at all. Names that do not occur in the template are
+ * ignored. Primitive values are stored unboxed. Values and lists bound with a {@code Supplier} are supplied only when
+ * their placeholder is rendered, at most once per render. Values and lists bound with a {@code CompletionStage} are
+ * waited for only when their placeholder is rendered, or resolved concurrently by
+ * {@link CompiledTemplate#renderAsync(TemplateBindings, TemplateStringEscaper, Executor)}.
+ * </p>
+ * <p>
+ * Path placeholders such as <code>{{order.customer.name}}</code> that are not bound themselves are resolved from the
+ * value bound to their root, {@code order}, when they are rendered. If an object along the path is {@code null}, the
+ * placeholder is rendered according to the {@link #nullPolicy(TemplateNullPolicy) null policy}.
+ * </p>
+ * <p>
+ * A {@code TemplateBindings} is meant to be filled and rendered by a single thread. It can be reused for subsequent
+ * renders of the same template after {@link #clear()}.
+ * </p>
+ * 
+ * @see CompiledTemplate#newBindings()
+ */
+public final class TemplateBindings {
+
+	private static final Object UNBOUND = new Object();
+
+	private final CompiledTemplate template;
+	private final Object[] values;
+	private final long[] primitives;
+	private final Object[] lists;
+	private final TemplatePath[] paths;
+	private TemplateNullPolicy nullPolicy;
+	private boolean deferred;
+
+	TemplateBindings(CompiledTemplate template, int valueSlots, int listSlots) {
+		this.template = template;
+		this.values = new Object[valueSlots];
+		this.primitives = new long[valueSlots];
+		this.lists = new Object[listSlots];
+		this.paths = template.paths();
+		this.nullPolicy = TemplateNullPolicy.RENDER_NULL;
+		this.deferred = false;
+		Arrays.fill(values, UNBOUND);
+	}
+
+	/**
+	 * Gets the template these bindings belong to.
+	 * 
+	 * @return the compiled template
+	 */
+	public CompiledTemplate template() {
+		return template;
+	}
+
+	/**
+	 * Sets a value for a placeholder in the template.
+	 * <p>
+	 * A {@code CompletionStage} value, such as a {@code CompletableFuture}, is replaced with its result when the
+	 * placeholder is rendered.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, Object value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			value(slot, value);
+		return this;
+	}
+
+	/**
+	 * Sets a lazily supplied value for a placeholder in the template.
+	 * <p>
+	 * The supplier is invoked only if the placeholder is rendered, and at most once per render, however many times the
+	 * placeholder appears in the template. It is not invoked at all if the placeholder does not occur in the template.
+	 * A {@code null} supplier binds a {@code null} value, as {@link #value(String, Object)} does.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param supplier    the supplier of the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, Supplier<?> supplier) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			value(slot, supplier);
+		return this;
+	}
+
+	/**
+	 * Sets a lazily supplied value for the placeholder with the specified slot index.
+	 * 
+	 * @param slot     the slot index of the placeholder
+	 * @param supplier the supplier of the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 * 
+	 * @see #value(String, Supplier)
+	 */
+	public TemplateBindings value(int slot, Supplier<?> supplier) {
+		if (supplier == null)
+			return value(slot, (Object) null);
+		values[slot] = new LazyValue(supplier);
+		deferred = true;
+		return this;
+	}
+
+	/**
+	 * Sets a formatted value for a placeholder in the template.
+	 * <p>
+	 * The value is formatted only when the placeholder is rendered. The format string is parsed once and cached. The
+	 * arguments are copied, so later changes to the array do not affect the value. If an argument does not match its
+	 * specifier, rendering the placeholder fails with a {@code TemplateEngineException}.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param format      a format string
+	 * @param args        arguments referenced by the format string
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException   if {@code placeholder} or {@code format} is {@code null}
+	 * @throws IllegalFormatException if the format string is invalid
+	 */
+	public TemplateBindings value(String placeholder, String format, Object... args) {
+		Objects.requireNonNull(format);
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			values[slot] = new FormattedValue(placeholder, TemplateFormat.forPattern(format), args);
+		return this;
+	}
+
+	/**
+	 * Sets a value for the placeholder with the specified slot index.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 * 
+	 * @see #value(String, Object)
+	 */
+	public TemplateBindings value(int slot, Object value) {
+		if (value instanceof CompletionStage) {
+			values[slot] = new AsyncValue(((CompletionStage<?>) value).toCompletableFuture());
+			deferred = true;
+		} else
+			values[slot] = value;
+		return this;
+	}
+
+	/**
+	 * Sets a {@code long} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, long value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			primitive(slot, TemplatePrimitive.LONG, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code long} value for the placeholder with the specified slot index, without boxing it.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 */
+	public TemplateBindings value(int slot, long value) {
+		primitive(slot, TemplatePrimitive.LONG, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code double} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, double value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			primitive(slot, TemplatePrimitive.DOUBLE, Double.doubleToRawLongBits(value));
+		return this;
+	}
+
+	/**
+	 * Sets a {@code double} value for the placeholder with the specified slot index, without boxing it.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 */
+	public TemplateBindings value(int slot, double value) {
+		primitive(slot, TemplatePrimitive.DOUBLE, Double.doubleToRawLongBits(value));
+		return this;
+	}
+
+	/**
+	 * Sets a {@code float} value for a placeholder in the template, without boxing it. The value is rendered like
+	 * {@code Float.toString(float)}, without widening it to a {@code double}.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, float value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			primitive(slot, TemplatePrimitive.FLOAT, Float.floatToRawIntBits(value));
+		return this;
+	}
+
+	/**
+	 * Sets a {@code float} value for the placeholder with the specified slot index, without boxing it. The value is
+	 * rendered like {@code Float.toString(float)}, without widening it to a {@code double}.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 */
+	public TemplateBindings value(int slot, float value) {
+		primitive(slot, TemplatePrimitive.FLOAT, Float.floatToRawIntBits(value));
+		return this;
+	}
+
+	/**
+	 * Sets a {@code boolean} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, boolean value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			primitive(slot, TemplatePrimitive.BOOLEAN, value ? 1L : 0L);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code boolean} value for the placeholder with the specified slot index, without boxing it.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 */
+	public TemplateBindings value(int slot, boolean value) {
+		primitive(slot, TemplatePrimitive.BOOLEAN, value ? 1L : 0L);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code char} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBindings value(String placeholder, char value) {
+		int slot = template.valueSlot(placeholder);
+		if (slot != -1)
+			primitive(slot, TemplatePrimitive.CHAR, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code char} value for the placeholder with the specified slot index, without boxing it.
+	 * 
+	 * @param slot  the slot index of the placeholder
+	 * @param value the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a value slot of the template
+	 */
+	public TemplateBindings value(int slot, char value) {
+		primitive(slot, TemplatePrimitive.CHAR, value);
+		return this;
+	}
+
+	/**
+	 * Sets a list for a list placeholder in the template.
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * @param list        the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code list} is {@code null}
+	 */
+	public TemplateBindings list(String placeholder, Collection<?> list) {
+		Objects.requireNonNull(list);
+		int slot = template.listSlot(placeholder);
+		if (slot != -1)
+			lists[slot] = list;
+		return this;
+	}
+
+	/**
+	 * Sets a list for the list placeholder with the specified slot index.
+	 * 
+	 * @param slot the slot index of the list placeholder
+	 * @param list the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException      if {@code list} is {@code null}
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a list slot of the template
+	 */
+	public TemplateBindings list(int slot, Collection<?> list) {
+		lists[slot] = Objects.requireNonNull(list);
+		return this;
+	}
+
+	/**
+	 * Sets a lazily supplied list for a list placeholder in the template.
+	 * <p>
+	 * The supplier is invoked only if the list placeholder is rendered, and at most once per render, however many times
+	 * the list placeholder appears in the template. It is not invoked at all if the list placeholder does not occur in
+	 * the template.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * @param supplier    the supplier of the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code supplier} is {@code null}
+	 */
+	public TemplateBindings list(String placeholder, Supplier<? extends Collection<?>> supplier) {
+		Objects.requireNonNull(supplier);
+		int slot = template.listSlot(placeholder);
+		if (slot != -1)
+			list(slot, supplier);
+		return this;
+	}
+
+	/**
+	 * Sets a lazily supplied list for the list placeholder with the specified slot index.
+	 * 
+	 * @param slot     the slot index of the list placeholder
+	 * @param supplier the supplier of the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException      if {@code supplier} is {@code null}
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a list slot of the template
+	 * 
+	 * @see #list(String, Supplier)
+	 */
+	public TemplateBindings list(int slot, Supplier<? extends Collection<?>> supplier) {
+		lists[slot] = new LazyValue(Objects.requireNonNull(supplier));
+		deferred = true;
+		return this;
+	}
+
+	/**
+	 * Sets an asynchronously computed list for a list placeholder in the template.
+	 * <p>
+	 * The list placeholder is replaced with the result of the stage when it is rendered.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * @param stage       the stage completing with the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code stage} is {@code null}
+	 */
+	public TemplateBindings list(String placeholder, CompletionStage<? extends Collection<?>> stage) {
+		Objects.requireNonNull(stage);
+		int slot = template.listSlot(placeholder);
+		if (slot != -1)
+			list(slot, stage);
+		return this;
+	}
+
+	/**
+	 * Sets an asynchronously computed list for the list placeholder with the specified slot index.
+	 * 
+	 * @param slot  the slot index of the list placeholder
+	 * @param stage the stage completing with the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException      if {@code stage} is {@code null}
+	 * @throws IndexOutOfBoundsException if {@code slot} is not a list slot of the template
+	 * 
+	 * @see #list(String, CompletionStage)
+	 */
+	public TemplateBindings list(int slot, CompletionStage<? extends Collection<?>> stage) {
+		lists[slot] = new AsyncValue(stage.toCompletableFuture());
+		deferred = true;
+		return this;
+	}
+
+	/**
+	 * Binds the properties of the specified object to the placeholders named after them.
+	 * <p>
+	 * Properties are read with accessors discovered once per class, as described by
+	 * {@link CompiledTemplate#binder(Class)}. A {@code Map} is read by key instead, like path placeholders read it: its
+	 * entries are bound to the placeholders named after their keys. Placeholders without a matching property or entry
+	 * are left as they are.
+	 * </p>
+	 * 
+	 * @param source the object to bind
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException    if {@code source} is {@code null}
+	 * @throws TemplateEngineException if the property or entry of a list placeholder is not a {@code Collection},
+	 *                                 {@code Supplier} or {@code CompletionStage}
+	 */
+	@SuppressWarnings("unchecked")
+	public TemplateBindings bind(Object source) {
+		if (source instanceof Map)
+			return bindEntries((Map<?, ?>) source);
+		Class<Object> type = (Class<Object>) source.getClass();
+		template.binder(type).bind(source, this);
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	private TemplateBindings bindEntries(Map<?, ?> source) {
+		List<String> valueNames = template.valueNames();
+		for (int slot = 0; slot < valueNames.size(); slot++) {
+			if (!source.containsKey(valueNames.get(slot)))
+				continue;
+			Object value = source.get(valueNames.get(slot));
+			if (value instanceof Supplier)
+				value(slot, (Supplier<?>) value);
+			else
+				value(slot, value);
+		}
+		List<String> listNames = template.listNames();
+		for (int slot = 0; slot < listNames.size(); slot++) {
+			Object list = source.get(listNames.get(slot));
+			if (list == null)
+				continue;
+			else if (list instanceof Collection)
+				list(slot, (Collection<?>) list);
+			else if (list instanceof Supplier)
+				list(slot, (Supplier<? extends Collection<?>>) list);
+			else if (list instanceof CompletionStage)
+				list(slot, (CompletionStage<? extends Collection<?>>) list);
+			else
+				throw new TemplateEngineException("Entry %s is not a Collection, Supplier or CompletionStage",
+						listNames.get(slot));
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the policy for rendering path placeholders when an object along their path is {@code null}. Placeholders are
+	 * rendered as {@code null} by default.
+	 * 
+	 * @param nullPolicy the {@code TemplateNullPolicy} to use
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 * 
+	 * @throws NullPointerException if {@code nullPolicy} is {@code null}
+	 */
+	public TemplateBindings nullPolicy(TemplateNullPolicy nullPolicy) {
+		this.nullPolicy = Objects.requireNonNull(nullPolicy);
+		return this;
+	}
+
+	/**
+	 * Gets the policy for rendering path placeholders when an object along their path is {@code null}.
+	 * 
+	 * @return the current {@code TemplateNullPolicy}
+	 */
+	public TemplateNullPolicy nullPolicy() {
+		return nullPolicy;
+	}
+
+	/**
+	 * Removes all bound values and lists.
+	 * 
+	 * @return the current {@code TemplateBindings} instance
+	 */
+	public TemplateBindings clear() {
+		Arrays.fill(values, UNBOUND);
+		Arrays.fill(lists, null);
+		deferred = false;
+		return this;
+	}
+
+	/**
+	 * Forgets the values supplied during a previous render, so that each render invokes the suppliers again.
+	 */
+	void reset() {
+		if (!deferred)
+			return;
+		for (Object value : values)
+			if (value instanceof DeferredValue)
+				((DeferredValue) value).reset();
+		for (Object list : lists)
+			if (list instanceof DeferredValue)
+				((DeferredValue) list).reset();
+	}
+
+	/**
+	 * Resolves all deferred values and lists concurrently: waits for bound stages and invokes bound suppliers with the
+	 * specified executor. Once the returned future completes, rendering these bindings does not block.
+	 */
+	CompletableFuture<Void> resolve(Executor executor) {
+		if (!deferred)
+			return CompletableFuture.completedFuture(null);
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (Object value : values)
+			if (value instanceof DeferredValue)
+				futures.add(((DeferredValue) value).resolve(executor));
+		for (Object list : lists)
+			if (list instanceof DeferredValue)
+				futures.add(((DeferredValue) list).resolve(executor));
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Gets the future the value of the specified slot waits for, or {@code null} if it is available without waiting.
+	 */
+	CompletableFuture<?> pendingValue(int slot) {
+		Object value = values[slot];
+		if (value == UNBOUND && paths[slot] != null)
+			value = values[paths[slot].rootSlot()];
+		return value instanceof DeferredValue ? ((DeferredValue) value).pending() : null;
+	}
+
+	/**
+	 * Gets the future the list of the specified slot waits for, or {@code null} if it is available without waiting.
+	 */
+	CompletableFuture<?> pendingList(int slot) {
+		Object list = lists[slot];
+		return list instanceof DeferredValue ? ((DeferredValue) list).pending() : null;
+	}
+
+	boolean hasValue(int slot) {
+		return values[slot] != UNBOUND || paths[slot] != null && values[paths[slot].rootSlot()] != UNBOUND;
+	}
+
+	Object value(int slot) {
+		Object value = values[slot];
+		if (value == UNBOUND)
+			return paths[slot].resolve(boxedValue(paths[slot].rootSlot()), nullPolicy);
+		return value instanceof DeferredValue ? ((DeferredValue) value).get() : value;
+	}
+
+	Object boxedValue(int slot) {
+		Object value = value(slot);
+		return value instanceof TemplatePrimitive ? ((TemplatePrimitive) value).box(primitives[slot]) : value;
+	}
+
+	long primitive(int slot) {
+		return primitives[slot];
+	}
+
+	boolean hasList(int slot) {
+		return lists[slot] != null;
+	}
+
+	Collection<?> list(int slot) {
+		Object list = lists[slot];
+		return (Collection<?>) (list instanceof DeferredValue ? ((DeferredValue) list).get() : list);
+	}
+
+	/**
+	 * Returns a string representation of this {@code TemplateBindings}.
+	 * 
+	 * @return a string representation of the bound values and lists
+	 */
+	@Override
+	public String toString() {
+		StringBuilder values = new StringBuilder();
+		for (int slot = 0; slot < this.values.length; slot++)
+			if (this.values[slot] != UNBOUND)
+				append(values, template.valueNames().get(slot),
+						this.values[slot] instanceof DeferredValue ? this.values[slot] : boxedValue(slot));
+		StringBuilder lists = new StringBuilder();
+		for (int slot = 0; slot < this.lists.length; slot++)
+			if (hasList(slot))
+				append(lists, template.listNames().get(slot), this.lists[slot]);
+		return String.format("TemplateBindings [values={%s}, lists={%s}]", values, lists);
+	}
+
+	private void primitive(int slot, TemplatePrimitive primitive, long bits) {
+		values[slot] = primitive;
+		primitives[slot] = bits;
+	}
+
+	private static void append(StringBuilder builder, String name, Object value) {
+		if (builder.length() > 0)
+			builder.append(", ");
+		builder.append(name).append('=').append(value);
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable, growable character buffer to render templates into.
+ * <p>
+ * Unlike {@code StringBuilder}, a {@code TemplateBuffer} exposes its backing array, so rendered output can be written
+ * to a {@code Writer} or encoded without creating a {@code String}. The backing array only grows when the rendered
+ * output does not fit; after {@link #clear()} the buffer is reused as is. Once the buffer has grown to fit the output,
+ * rendering static text and {@code String} values into it performs no allocations.
+ * </p>
+ * <p>
+ * A {@code TemplateBuffer} is not safe to use from multiple threads.
+ * </p>
+ * 
+ * @see CompiledTemplate#renderTo(TemplateBuffer, TemplateBindings, TemplateStringEscaper)
+ */
+public final class TemplateBuffer implements Appendable, CharSequence {
+
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private char[] chars;
+	private int length;
+
+	/**
+	 * Creates a new {@code TemplateBuffer} with the default initial capacity.
+	 */
+	public TemplateBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@code TemplateBuffer} with the specified initial capacity.
+	 * 
+	 * @param capacity the initial capacity
+	 * 
+	 * @throws IllegalArgumentException if {@code capacity} is negative
+	 */
+	public TemplateBuffer(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException(String.format("Capacity %s is negative", capacity));
+		this.chars = new char[capacity];
+		this.length = 0;
+	}
+
+	/**
+	 * Creates a new {@code TemplateBuffer} that renders into the specified array until it needs to grow.
+	 * 
+	 * @param chars the initial backing array
+	 * 
+	 * @throws NullPointerException if {@code chars} is {@code null}
+	 */
+	public TemplateBuffer(char[] chars) {
+		this.chars = Objects.requireNonNull(chars);
+		this.length = 0;
+	}
+
+	/**
+	 * Removes all characters, keeping the backing array for reuse.
+	 * 
+	 * @return the current {@code TemplateBuffer} instance
+	 */
+	public TemplateBuffer clear() {
+		length = 0;
+		return this;
+	}
+
+	/**
+	 * Gets the backing array. Only the first {@link #length()} characters are valid.
+	 * <p>
+	 * The array is replaced when the buffer grows, so it should be obtained again after each render.
+	 * </p>
+	 * 
+	 * @return the backing array
+	 */
+	public char[] array() {
+		return chars;
+	}
+
+	/**
+	 * Gets the capacity of the backing array.
+	 * 
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return chars.length;
+	}
+
+	/**
+	 * Wraps the valid characters of this buffer into a {@code CharBuffer}, without copying them.
+	 * 
+	 * @return a new {@code CharBuffer} backed by this buffer's array
+	 */
+	public CharBuffer asCharBuffer() {
+		return CharBuffer.wrap(chars, 0, length);
+	}
+
+	/**
+	 * Writes the valid characters of this buffer to the specified writer, without copying them.
+	 * 
+	 * @param writer the writer to write to
+	 * 
+	 * @throws IOException if the writer cannot be written to
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		writer.write(chars, 0, length);
+	}
+
+	@Override
+	public TemplateBuffer append(CharSequence sequence) {
+		if (sequence == null)
+			return append("null");
+		return append(sequence, 0, sequence.length());
+	}
+
+	@Override
+	public TemplateBuffer append(CharSequence sequence, int start, int end) {
+		if (sequence == null)
+			return append("null", start, end);
+		if (start < 0 || start > end || end > sequence.length())
+			throw new IndexOutOfBoundsException(String.format("Range [%s, %s) out of bounds for length %s", start,
+					end, sequence.length()));
+		int count = end - start;
+		ensureCapacity(length + count);
+		if (sequence instanceof String)
+			((String) sequence).getChars(start, end, chars, length);
+		else if (sequence instanceof TemplateBuffer)
+			System.arraycopy(((TemplateBuffer) sequence).chars, start, chars, length, count);
+		else
+			for (int i = start; i < end; i++)
+				chars[length + i - start] = sequence.charAt(i);
+		length += count;
+		return this;
+	}
+
+	@Override
+	public TemplateBuffer append(char c) {
+		ensureCapacity(length + 1);
+		chars[length++] = c;
+		return this;
+	}
+
+	/**
+	 * Appends the specified characters.
+	 * 
+	 * @param chars  the characters to append
+	 * @param offset the index of the first character to append
+	 * @param count  the number of characters to append
+	 * 
+	 * @return the current {@code TemplateBuffer} instance
+	 */
+	public TemplateBuffer append(char[] chars, int offset, int count) {
+		ensureCapacity(length + count);
+		System.arraycopy(chars, offset, this.chars, length, count);
+		length += count;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException(String.format("Index %s out of bounds for length %s", index, length));
+		return chars[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || start > end || end > length)
+			throw new IndexOutOfBoundsException(
+					String.format("Range [%s, %s) out of bounds for length %s", start, end, length));
+		return new String(chars, start, end - start);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity < 0)
+			throw new OutOfMemoryError("Required buffer capacity is too large");
+		if (capacity > chars.length)
+			chars = Arrays.copyOf(chars, Math.max(capacity, chars.length + (chars.length >> 1) + 16));
+	}
+
+	/**
+	 * Returns the valid characters of this buffer as a {@code String}.
+	 * 
+	 * @return the buffer content
+	 */
+	@Override
+	public String toString() {
+		return new String(chars, 0, length);
+	}
+
+}
@@ -1,15 +1,15 @@
 package com.kaba4cow.templateengine;
 
-import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collection;
-import java.util.Map;
+import java.util.IllegalFormatException;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * A utility class for building string templates with placeholders.
@@ -25,22 +25,16 @@ import java.util.stream.Collectors;
  */
 public class TemplateBuilder {
 
-	private static final String VALUE_DELIMITER_OPEN = "{{";
-	private static final String VALUE_DELIMITER_CLOSE = "}}";
-	private static final String LIST_DELIMITER_OPEN = "[[";
-	private static final String LIST_DELIMITER_CLOSE = "]]";
-	private static final String LIST_DELIMITER_FORMAT = "::";
-
-	private final String template;
-	private final Map<String, Object> values;
-	private final Map<String, Collection<?>> lists;
+	private final CompiledTemplate template;
+	private final TemplateBindings bindings;
 	private TemplateStringEscaper escaper;
+	private Executor executor;
 
-	private TemplateBuilder(String template) {
+	private TemplateBuilder(CompiledTemplate template) {
 		this.template = Objects.requireNonNull(template);
-		this.values = new ConcurrentHashMap<>();
-		this.lists = new ConcurrentHashMap<>();
+		this.bindings = template.newBindings();
 		this.escaper = new DefaultTemplateStringEscaper();
+		this.executor = ForkJoinPool.commonPool();
 	}
 
 	/**
@@ -50,9 +44,28 @@ public class TemplateBuilder {
 	 * 
 	 * @return a new instance of {@code TemplateBuilder}
 	 * 
-	 * @throws NullPointerException if {@code template} is {@code null}
+	 * @throws NullPointerException    if {@code template} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
 	 */
 	public static TemplateBuilder forString(String template) {
+		return new TemplateBuilder(CompiledTemplate.compile(template));
+	}
+
+	/**
+	 * Creates a new {@code TemplateBuilder} for the specified pre-parsed template.
+	 * <p>
+	 * The template is not parsed again when the builder is built.
+	 * </p>
+	 * 
+	 * @param template the compiled template
+	 * 
+	 * @return a new instance of {@code TemplateBuilder}
+	 * 
+	 * @throws NullPointerException if {@code template} is {@code null}
+	 * 
+	 * @see CompiledTemplate#compile(String)
+	 */
+	public static TemplateBuilder forTemplate(CompiledTemplate template) {
 		return new TemplateBuilder(template);
 	}
 
@@ -63,17 +76,14 @@ public class TemplateBuilder {
 	 * 
 	 * @return a new instance of {@code TemplateBuilder}
 	 * 
-	 * @throws NullPointerException if {@code filePath} is {@code null}
-	 * @throws RuntimeException     if the file cannot be read
+	 * @throws NullPointerException    if {@code filePath} is {@code null}
+	 * @throws RuntimeException        if the file cannot be read
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
 	 */
 	public static TemplateBuilder forFile(String filePath) {
 		try {
 			Objects.requireNonNull(filePath);
-			InputStream input = new FileInputStream(filePath);
-			BufferedReader reader = new BufferedReader(new InputStreamReader(input));
-			String string = reader.lines().collect(Collectors.joining("\n"));
-			reader.close();
-			return new TemplateBuilder(string);
+			return forString(TemplateReader.read(new FileInputStream(filePath)));
 		} catch (IOException exception) {
 			throw new RuntimeException(String.format("Could not load template from file %s", filePath), exception);
 		}
@@ -81,22 +91,26 @@ public class TemplateBuilder {
 
 	/**
 	 * Creates a new {@code TemplateBuilder} by reading a template from a resource.
+	 * <p>
+	 * If the resource was precompiled at build time, its generated template is used instead, without reading or parsing
+	 * the resource.
+	 * </p>
 	 * 
 	 * @param resourceName the resource name containing the template
 	 * 
 	 * @return a new instance of {@code TemplateBuilder}
 	 * 
-	 * @throws NullPointerException if {@code resourceName} is {@code null}
-	 * @throws RuntimeException     if the resource cannot be read
+	 * @throws NullPointerException    if {@code resourceName} is {@code null}
+	 * @throws RuntimeException        if the resource cannot be read
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
 	 */
 	public static TemplateBuilder forResource(String resourceName) {
 		try {
 			Objects.requireNonNull(resourceName);
-			InputStream input = TemplateBuilder.class.getClassLoader().getResourceAsStream(resourceName);
-			BufferedReader reader = new BufferedReader(new InputStreamReader(input));
-			String string = reader.lines().collect(Collectors.joining("\n"));
-			reader.close();
-			return new TemplateBuilder(string);
+			CompiledTemplate precompiled = PrecompiledTemplateIndex.find(resourceName);
+			if (precompiled != null)
+				return forTemplate(precompiled);
+			return forString(TemplateLoader.forResources(TemplateBuilder.class.getClassLoader()).load(resourceName));
 		} catch (IOException exception) {
 			throw new RuntimeException(String.format("Could not load template from resource %s", resourceName), exception);
 		}
@@ -104,6 +118,10 @@ public class TemplateBuilder {
 
 	/**
 	 * Sets a value for a placeholder in the template.
+	 * <p>
+	 * A {@code CompletionStage} value, such as a {@code CompletableFuture}, is replaced with its result when the
+	 * placeholder is rendered. Use {@link #buildAsync()} to render without blocking on it.
+	 * </p>
 	 * 
 	 * @param placeholder the name of the placeholder
 	 * @param value       the value to replace the placeholder with
@@ -113,12 +131,142 @@ public class TemplateBuilder {
 	 * @throws NullPointerException if {@code placeholder} is {@code null}
 	 */
 	public TemplateBuilder value(String placeholder, Object value) {
-		this.values.put(Objects.requireNonNull(placeholder), value);
+		bindings.value(placeholder, value);
 		return this;
 	}
 
+	/**
+	 * Sets a lazily supplied value for a placeholder in the template.
+	 * <p>
+	 * The supplier is invoked only if the placeholder occurs in the template, when it is rendered, and at most once per
+	 * render. A {@code null} supplier binds a {@code null} value.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param supplier    the supplier of the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, Supplier<?> supplier) {
+		bindings.value(placeholder, supplier);
+		return this;
+	}
+
+	/**
+	 * Sets an {@code int} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, int value) {
+		bindings.value(placeholder, (long) value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code long} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, long value) {
+		bindings.value(placeholder, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code double} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, double value) {
+		bindings.value(placeholder, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code float} value for a placeholder in the template, without boxing it. The value is rendered like
+	 * {@code Float.toString(float)}, without widening it to a {@code double}.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, float value) {
+		bindings.value(placeholder, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code boolean} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, boolean value) {
+		bindings.value(placeholder, value);
+		return this;
+	}
+
+	/**
+	 * Sets a {@code char} value for a placeholder in the template, without boxing it.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} is {@code null}
+	 */
+	public TemplateBuilder value(String placeholder, char value) {
+		bindings.value(placeholder, value);
+		return this;
+	}
+
+	/**
+	 * Sets a value for a placeholder in the template that is rendered as is, without escaping.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param value       the already escaped value to replace the placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code value} is {@code null}
+	 * 
+	 * @see SafeText
+	 */
+	public TemplateBuilder rawValue(String placeholder, CharSequence value) {
+		return value(placeholder, SafeText.of(value));
+	}
+
 	/**
 	 * Sets a formatted value for a placeholder.
+	 * <p>
+	 * The value is formatted only when the placeholder is rendered, directly into the output. The format string is
+	 * parsed once and cached, so repeated patterns are not parsed again.
+	 * </p>
 	 * 
 	 * @param placeholder the name of the placeholder
 	 * @param format      a format string
@@ -126,10 +274,12 @@ public class TemplateBuilder {
 	 * 
 	 * @return the current {@code TemplateBuilder} instance
 	 * 
-	 * @throws NullPointerException if {@code placeholder} or {@code format} is {@code null}
+	 * @throws NullPointerException   if {@code placeholder} or {@code format} is {@code null}
+	 * @throws IllegalFormatException if the format string is invalid
 	 */
 	public TemplateBuilder value(String placeholder, String format, Object... args) {
-		return value(placeholder, String.format(Objects.requireNonNull(format), args));
+		bindings.value(placeholder, format, args);
+		return this;
 	}
 
 	/**
@@ -143,10 +293,100 @@ public class TemplateBuilder {
 	 * @throws NullPointerException if {@code placeholder} or {@code list} is {@code null}
 	 */
 	public TemplateBuilder list(String placeholder, Collection<?> list) {
-		this.lists.put(Objects.requireNonNull(placeholder), Objects.requireNonNull(list));
+		bindings.list(placeholder, list);
+		return this;
+	}
+
+	/**
+	 * Sets a lazily supplied list for a list placeholder in the template.
+	 * <p>
+	 * The supplier is invoked only if the list placeholder occurs in the template, when it is rendered, and at most once
+	 * per render.
+	 * </p>
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * @param supplier    the supplier of the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code supplier} is {@code null}
+	 */
+	public TemplateBuilder list(String placeholder, Supplier<? extends Collection<?>> supplier) {
+		bindings.list(placeholder, supplier);
 		return this;
 	}
 
+	/**
+	 * Sets an asynchronously computed list for a list placeholder in the template.
+	 * 
+	 * @param placeholder the name of the list placeholder
+	 * @param stage       the stage completing with the collection to replace the list placeholder with
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code placeholder} or {@code stage} is {@code null}
+	 * 
+	 * @see #buildAsync()
+	 */
+	public TemplateBuilder list(String placeholder, CompletionStage<? extends Collection<?>> stage) {
+		bindings.list(placeholder, stage);
+		return this;
+	}
+
+	/**
+	 * Binds the properties of the specified object with the specified binder.
+	 * 
+	 * @param <T>    the type of the bound object
+	 * @param binder the binder generated for the type of the object
+	 * @param source the object to bind
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException     if {@code binder} or {@code source} is {@code null}
+	 * @throws IllegalArgumentException if {@code binder} binds to another template than this builder's
+	 * 
+	 * @see TemplateModel
+	 */
+	public <T> TemplateBuilder bind(TemplateBinder<? super T> binder, T source) {
+		binder.bind(source, bindings);
+		return this;
+	}
+
+	/**
+	 * Binds the properties of the specified object, such as a JavaBean or a record, to the placeholders named after
+	 * them.
+	 * <p>
+	 * Accessors are discovered once per class and invoked through cached {@code MethodHandle}s, so binding involves no
+	 * reflection after the first object of a class. Placeholders without a matching property can be set separately.
+	 * </p>
+	 * 
+	 * @param source the object to bind
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException    if {@code source} is {@code null}
+	 * @throws TemplateEngineException if the property of a list placeholder is not a {@code Collection},
+	 *                                 {@code Supplier} or {@code CompletionStage}
+	 * 
+	 * @see CompiledTemplate#binder(Class)
+	 */
+	public TemplateBuilder bind(Object source) {
+		bindings.bind(source);
+		return this;
+	}
+
+	/**
+	 * Gets the bindings of this builder, which allow setting values and lists by slot index.
+	 * 
+	 * @return the {@code TemplateBindings} of this builder
+	 * 
+	 * @see CompiledTemplate#valueSlot(String)
+	 * @see CompiledTemplate#listSlot(String)
+	 */
+	public TemplateBindings bindings() {
+		return bindings;
+	}
+
 	/**
 	 * Sets the escaping strategy for placeholder values.
 	 * 
@@ -170,56 +410,137 @@ public class TemplateBuilder {
 		return escaper;
 	}
 
+	/**
+	 * Sets the executor used by {@link #buildAsync()} to invoke value suppliers and render the template. The common
+	 * {@code ForkJoinPool} is used by default.
+	 * 
+	 * @param executor the {@code Executor} to use
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code executor} is {@code null}
+	 */
+	public TemplateBuilder executor(Executor executor) {
+		this.executor = Objects.requireNonNull(executor);
+		return this;
+	}
+
+	/**
+	 * Gets the executor used by {@link #buildAsync()}.
+	 * 
+	 * @return the current {@code Executor}
+	 */
+	public Executor executor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the policy for rendering path placeholders, such as <code>{{order.customer.name}}</code>, when an object
+	 * along their path is {@code null}. Placeholders are rendered as {@code null} by default.
+	 * 
+	 * @param nullPolicy the {@code TemplateNullPolicy} to use
+	 * 
+	 * @return the current {@code TemplateBuilder} instance
+	 * 
+	 * @throws NullPointerException if {@code nullPolicy} is {@code null}
+	 */
+	public TemplateBuilder nullPolicy(TemplateNullPolicy nullPolicy) {
+		bindings.nullPolicy(nullPolicy);
+		return this;
+	}
+
+	/**
+	 * Gets the policy for rendering path placeholders when an object along their path is {@code null}.
+	 * 
+	 * @return the current {@code TemplateNullPolicy}
+	 */
+	public TemplateNullPolicy nullPolicy() {
+		return bindings.nullPolicy();
+	}
+
 	/**
 	 * Renders the template by replacing all placeholders with their corresponding values.
+	 * <p>
+	 * Value and list placeholders are substituted in a single pass, so substituted values are never interpreted as
+	 * placeholders.
+	 * </p>
 	 * 
 	 * @return the rendered template as a {@code String}
 	 * 
-	 * @throws TemplateEngineException if a placeholder is not properly closed or not provided
+	 * @throws TemplateEngineException if a placeholder is not provided
 	 */
 	public String build() {
-		String template = this.template;
-		StringBuilder result = new StringBuilder();
-		int startIndex = 0;
-		while (startIndex < template.length()) {
-			int openIndex = template.indexOf(VALUE_DELIMITER_OPEN, startIndex);
-			if (openIndex == -1) {
-				result.append(template.substring(startIndex));
-				break;
-			}
-			result.append(template.substring(startIndex, openIndex));
-			int closeIndex = template.indexOf(VALUE_DELIMITER_CLOSE, openIndex + VALUE_DELIMITER_OPEN.length());
-			if (closeIndex == -1)
-				throw new TemplateEngineException("Unclosed value placeholder");
-			String placeholder = template.substring(openIndex + VALUE_DELIMITER_OPEN.length(), closeIndex);
-			if (!values.containsKey(placeholder))
-				throw new TemplateEngineException("Value %s not provided", placeholder);
-			result.append(escaper.escape(Objects.toString(values.get(placeholder))));
-			startIndex = closeIndex + VALUE_DELIMITER_CLOSE.length();
-		}
-		template = result.toString();
-		result.setLength(0);
-		startIndex = 0;
-		while (startIndex < template.length()) {
-			int openIndex = template.indexOf(LIST_DELIMITER_OPEN, startIndex);
-			if (openIndex == -1) {
-				result.append(template.substring(startIndex));
-				break;
-			}
-			result.append(template.substring(startIndex, openIndex));
-			int closeIndex = template.indexOf(LIST_DELIMITER_CLOSE, openIndex + LIST_DELIMITER_OPEN.length());
-			if (closeIndex == -1)
-				throw new TemplateEngineException("Unclosed list placeholder");
-			String placeholder = template.substring(openIndex + LIST_DELIMITER_OPEN.length(), closeIndex);
-			String placeholderName = placeholder.split(LIST_DELIMITER_FORMAT)[0];
-			String placeholderFormat = placeholder.split(LIST_DELIMITER_FORMAT)[1];
-			if (!lists.containsKey(placeholderName))
-				throw new TemplateEngineException("List %s not provided", placeholderName);
-			TemplateListFormatter formatter = TemplateListFormatter.forName(placeholderFormat);
-			result.append(escaper.escape(formatter.format(lists.get(placeholderName))));
-			startIndex = closeIndex + LIST_DELIMITER_CLOSE.length();
-		}
-		return result.toString();
+		return template.render(bindings, escaper);
+	}
+
+	/**
+	 * Renders the template asynchronously, once all asynchronous values and lists have completed.
+	 * <p>
+	 * Pending values and lists are resolved concurrently: bound stages are waited for while bound suppliers run on the
+	 * executor of this builder, so the render waits for the slowest binding rather than for the sum of all of them.
+	 * </p>
+	 * 
+	 * @return a future completing with the rendered template, or exceptionally if a binding fails or a placeholder is
+	 *         not provided
+	 * 
+	 * @see CompiledTemplate#renderAsync(TemplateBindings, TemplateStringEscaper, Executor)
+	 */
+	public CompletableFuture<String> buildAsync() {
+		return template.renderAsync(bindings, escaper, executor);
+	}
+
+	/**
+	 * Renders the template directly into the specified output.
+	 * <p>
+	 * Unlike {@link #build()}, the rendered template is never materialised as a {@code String}: static text, escaped
+	 * values and formatted lists are appended to {@code output} as they are rendered. Any {@code Appendable} can be
+	 * used, including a {@code Writer} wrapping a file or a socket.
+	 * </p>
+	 * 
+	 * @param output the output to render into
+	 * 
+	 * @throws NullPointerException    if {@code output} is {@code null}
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 */
+	public void renderTo(Appendable output) throws IOException {
+		template.renderTo(output, bindings, escaper);
+	}
+
+	/**
+	 * Renders the template asynchronously into the specified output, writing each part as soon as it and everything
+	 * before it is ready.
+	 * <p>
+	 * The beginning of the template is written and flushed right away, up to the first asynchronous value that has not
+	 * completed yet. The rest follows progressively, in template order, as pending values complete, while all of them
+	 * are resolved concurrently. This is useful to reduce the time to first byte of a response.
+	 * </p>
+	 * 
+	 * @param output the output to render into, flushed whenever rendering waits if it is {@code Flushable}
+	 * 
+	 * @return a future completing once the whole template has been written, or exceptionally if a binding fails, a
+	 *         placeholder is not provided or the output cannot be written to
+	 * 
+	 * @throws NullPointerException if {@code output} is {@code null}
+	 * 
+	 * @see CompiledTemplate#renderToAsync(Appendable, TemplateBindings, TemplateStringEscaper, Executor)
+	 */
+	public CompletableFuture<Void> renderToAsync(Appendable output) {
+		return template.renderToAsync(output, bindings, escaper, executor);
+	}
+
+	/**
+	 * Renders the template into the specified reusable buffer.
+	 * 
+	 * @param buffer the buffer to render into
+	 * 
+	 * @throws NullPointerException    if {@code buffer} is {@code null}
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 * 
+	 * @see CompiledTemplate#renderTo(TemplateBuffer, TemplateBindings, TemplateStringEscaper)
+	 */
+	public void renderTo(TemplateBuffer buffer) {
+		template.renderTo(buffer, bindings, escaper);
 	}
 
 	/**
@@ -229,7 +550,7 @@ public class TemplateBuilder {
 	 */
 	@Override
 	public String toString() {
-		return String.format("TemplateBuilder [template=%s, values=%s, lists=%s]", template, values, lists);
+		return String.format("TemplateBuilder [template=%s, bindings=%s]", template.template(), bindings);
 	}
 
 }
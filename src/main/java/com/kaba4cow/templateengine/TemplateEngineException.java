@@ -11,4 +11,8 @@ public class TemplateEngineException extends RuntimeException {
 		super(String.format(format, args));
 	}
 
+	TemplateEngineException(Throwable cause, String format, Object... args) {
+		super(String.format(format, args), cause);
+	}
+
 }
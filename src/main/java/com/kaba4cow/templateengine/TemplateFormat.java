@@ -0,0 +1,189 @@
+package com.kaba4cow.templateengine;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A format string in {@code java.util.Formatter} syntax, split once into literal text and single format specifiers.
+ * <p>
+ * Parsed formats are cached by format string, so a pattern used repeatedly is parsed only once. Formatting reuses a
+ * per-thread {@code Formatter} and only hands single specifiers to it; plain {@code %s} specifiers are appended
+ * directly.
+ * </p>
+ */
+final class TemplateFormat {
+
+	private static final Pattern SPECIFIER = Pattern
+			.compile("%(\\d+\\$|<)?([-#+ 0,(]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+	private static final String CONVERSIONS = "bBhHsScCdoxXeEfgGaA%n";
+
+	private static final int MAXIMUM_CACHED_FORMATS = 1024;
+	private static final ConcurrentMap<String, TemplateFormat> FORMATS = new ConcurrentHashMap<>();
+	private static final ThreadLocal<Formatter> FORMATTERS = ThreadLocal.withInitial(TemplateFormat::newFormatter);
+
+	private final String format;
+	private final Part[] parts;
+
+	private TemplateFormat(String format, List<Part> parts) {
+		this.format = format;
+		this.parts = parts.toArray(new Part[0]);
+	}
+
+	/**
+	 * Gets the parsed form of the specified format string.
+	 * 
+	 * @param format the format string
+	 * 
+	 * @return the parsed format
+	 * 
+	 * @throws IllegalFormatException if the format string is invalid
+	 */
+	static TemplateFormat forPattern(String format) {
+		TemplateFormat templateFormat = FORMATS.get(format);
+		if (templateFormat == null) {
+			templateFormat = parse(format);
+			if (FORMATS.size() < MAXIMUM_CACHED_FORMATS)
+				FORMATS.putIfAbsent(format, templateFormat);
+		}
+		return templateFormat;
+	}
+
+	/**
+	 * Formats the specified arguments into the specified builder.
+	 * 
+	 * @param builder the builder to append to
+	 * @param args    the format arguments, or {@code null} to format {@code null} for every specifier
+	 * 
+	 * @throws IllegalFormatException if an argument does not match its specifier
+	 */
+	void formatTo(StringBuilder builder, Object[] args) {
+		Formatter formatter = null;
+		try {
+			for (Part part : parts) {
+				if (part.specifier == null) {
+					builder.append(part.text);
+					continue;
+				}
+				if (args != null && part.index >= args.length)
+					throw new MissingFormatArgumentException(part.specifier);
+				Object arg = args == null ? null : args[part.index];
+				if (part.plain && !(arg instanceof Formattable)) {
+					builder.append(arg);
+					continue;
+				}
+				if (formatter == null)
+					formatter = acquireFormatter();
+				StringBuilder output = (StringBuilder) formatter.out();
+				output.setLength(0);
+				formatter.format(Locale.getDefault(Locale.Category.FORMAT), part.specifier, arg);
+				builder.append(output);
+			}
+		} finally {
+			if (formatter != null)
+				FORMATTERS.set(formatter);
+		}
+	}
+
+	/**
+	 * Gets the format string.
+	 * 
+	 * @return the format string
+	 */
+	String format() {
+		return format;
+	}
+
+	private static TemplateFormat parse(String format) {
+		List<Part> parts = new ArrayList<>();
+		Matcher matcher = SPECIFIER.matcher(format);
+		StringBuilder text = new StringBuilder();
+		int ordinaryIndex = 0;
+		int lastIndex = -1;
+		int startIndex = 0;
+		while (startIndex < format.length()) {
+			int percentIndex = format.indexOf('%', startIndex);
+			if (percentIndex == -1) {
+				text.append(format, startIndex, format.length());
+				break;
+			}
+			text.append(format, startIndex, percentIndex);
+			if (!matcher.find(percentIndex) || matcher.start() != percentIndex)
+				throw new UnknownFormatConversionException(String.valueOf(format.charAt(percentIndex)));
+			startIndex = matcher.end();
+			char conversion = matcher.group(6).charAt(0);
+			if (matcher.group(5) == null && CONVERSIONS.indexOf(conversion) == -1)
+				throw new UnknownFormatConversionException(String.valueOf(conversion));
+			if (conversion == '%') {
+				text.append('%');
+				continue;
+			}
+			if (conversion == 'n') {
+				text.append(System.lineSeparator());
+				continue;
+			}
+			String index = matcher.group(1);
+			if (index == null)
+				lastIndex = ordinaryIndex++;
+			else if (index.equals("<")) {
+				if (lastIndex == -1)
+					throw new MissingFormatArgumentException(matcher.group());
+			} else
+				lastIndex = Integer.parseInt(index.substring(0, index.length() - 1)) - 1;
+			if (text.length() > 0) {
+				parts.add(new Part(text.toString(), null, -1, false));
+				text.setLength(0);
+			}
+			String specifier = "%" + format.substring(index == null ? matcher.start() + 1 : matcher.end(1),
+					matcher.end());
+			parts.add(new Part(null, specifier, lastIndex, specifier.equals("%s")));
+		}
+		if (text.length() > 0)
+			parts.add(new Part(text.toString(), null, -1, false));
+		return new TemplateFormat(format, parts);
+	}
+
+	private static Formatter acquireFormatter() {
+		Formatter formatter = FORMATTERS.get();
+		if (formatter == null)
+			return newFormatter();
+		FORMATTERS.set(null);
+		return formatter;
+	}
+
+	private static Formatter newFormatter() {
+		return new Formatter(new StringBuilder());
+	}
+
+	@Override
+	public String toString() {
+		return format;
+	}
+
+	private static final class Part {
+
+		private final String text;
+		private final String specifier;
+		private final int index;
+		private final boolean plain;
+
+		private Part(String text, String specifier, int index, boolean plain) {
+			this.text = text;
+			this.specifier = specifier;
+			this.index = index;
+			this.plain = plain;
+		}
+
+	}
+
+}
@@ -1,67 +1,63 @@
 package com.kaba4cow.templateengine;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Objects;
 
 /**
  * Enumeration for formatting collections in templates.
+ * <p>
+ * Elements are formatted in a single pass over the source, each element being appended to the output as soon as it
+ * is read.
+ * </p>
  */
 public enum TemplateListFormatter {
 
 	INLINE {
 
 		@Override
-		public void format(StringBuilder builder, List<String> list) {
-			for (int i = 0; i < list.size(); i++) {
-				if (i > 0)
-					builder.append(", ");
-				builder.append(list.get(i));
-			}
+		protected void appendPrefix(Appendable output, int index) throws IOException {
+			if (index > 0)
+				output.append(", ");
 		}
 
 	},
 	BULLETED {
 
 		@Override
-		public void format(StringBuilder builder, List<String> list) {
-			for (int i = 0; i < list.size(); i++) {
-				if (i > 0)
-					builder.append("\n");
-				builder.append("• ");
-				builder.append(list.get(i));
-			}
+		protected void appendPrefix(Appendable output, int index) throws IOException {
+			if (index > 0)
+				output.append('\n');
+			output.append("• ");
 		}
 
 	},
 	ORDERED {
 
 		@Override
-		public void format(StringBuilder builder, List<String> list) {
-			for (int i = 0; i < list.size(); i++) {
-				if (i > 0)
-					builder.append("\n");
-				builder.append(String.format("%s. ", i + 1));
-				builder.append(list.get(i));
-			}
+		protected void appendPrefix(Appendable output, int index) throws IOException {
+			if (index > 0)
+				output.append('\n');
+			output.append(String.valueOf(index + 1));
+			output.append(". ");
 		}
 
 	},
 	UNORDERED {
 
 		@Override
-		public void format(StringBuilder builder, List<String> list) {
-			for (int i = 0; i < list.size(); i++) {
-				if (i > 0)
-					builder.append("\n");
-				builder.append("- ");
-				builder.append(list.get(i));
-			}
+		protected void appendPrefix(Appendable output, int index) throws IOException {
+			if (index > 0)
+				output.append('\n');
+			output.append("- ");
 		}
 
 	};
 
+	private static final TemplateStringEscaper NO_ESCAPER = new DefaultTemplateStringEscaper();
+
 	/**
 	 * Returns a {@code TemplateListFormatter} based on its name.
 	 * 
@@ -79,7 +75,15 @@ public enum TemplateListFormatter {
 		throw new TemplateEngineException("List formatter with name \"%s\" does not exist", name);
 	}
 
-	protected abstract void format(StringBuilder builder, List<String> list);
+	/**
+	 * Appends the markup preceding the element with the specified index.
+	 * 
+	 * @param output the output to append to
+	 * @param index  the zero-based index of the element
+	 * 
+	 * @throws IOException if the output cannot be written to
+	 */
+	protected abstract void appendPrefix(Appendable output, int index) throws IOException;
 
 	/**
 	 * Formats the collection based on the formatter type.
@@ -91,11 +95,78 @@ public enum TemplateListFormatter {
 	 */
 	public <T> String format(Collection<T> list) {
 		StringBuilder builder = new StringBuilder();
-		List<String> strings = new ArrayList<>();
-		for (T element : list)
-			strings.add(Objects.toString(element));
-		format(builder, strings);
+		try {
+			formatTo(list, builder);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
 		return builder.toString();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Formats the elements directly into the specified output, iterating over them once.
+	 * 
+	 * @param items  the elements to format
+	 * @param output the output to append to
+	 * 
+	 * @throws NullPointerException if {@code items} or {@code output} is {@code null}
+	 * @throws IOException          if the output cannot be written to
+	 */
+	public void formatTo(Iterable<?> items, Appendable output) throws IOException {
+		formatTo(items.iterator(), output, NO_ESCAPER);
+	}
+
+	/**
+	 * Formats the remaining elements of the iterator directly into the specified output.
+	 * 
+	 * @param items  the elements to format
+	 * @param output the output to append to
+	 * 
+	 * @throws NullPointerException if {@code items} or {@code output} is {@code null}
+	 * @throws IOException          if the output cannot be written to
+	 */
+	public void formatTo(Iterator<?> items, Appendable output) throws IOException {
+		formatTo(items, output, NO_ESCAPER);
+	}
+
+	/**
+	 * Formats the elements directly into the specified output, escaping each element as it is appended.
+	 * <p>
+	 * Only the elements are escaped; the markup added by the formatter is appended as is.
+	 * </p>
+	 * 
+	 * @param items   the elements to format
+	 * @param output  the output to append to
+	 * @param escaper the escaping strategy for the elements
+	 * 
+	 * @throws NullPointerException if any of the arguments is {@code null}
+	 * @throws IOException          if the output cannot be written to
+	 */
+	public void formatTo(Iterable<?> items, Appendable output, TemplateStringEscaper escaper) throws IOException {
+		formatTo(items.iterator(), output, escaper);
+	}
+
+	/**
+	 * Formats the remaining elements of the iterator directly into the specified output, escaping each element as it
+	 * is appended.
+	 * <p>
+	 * Only the elements are escaped; the markup added by the formatter is appended as is.
+	 * </p>
+	 * 
+	 * @param items   the elements to format
+	 * @param output  the output to append to
+	 * @param escaper the escaping strategy for the elements
+	 * 
+	 * @throws NullPointerException if any of the arguments is {@code null}
+	 * @throws IOException          if the output cannot be written to
+	 */
+	public void formatTo(Iterator<?> items, Appendable output, TemplateStringEscaper escaper) throws IOException {
+		Objects.requireNonNull(output);
+		Objects.requireNonNull(escaper);
+		for (int index = 0; items.hasNext(); index++) {
+			appendPrefix(output, index);
+			TemplateAppender.appendEscaped(output, items.next(), escaper);
+		}
+	}
+
+}
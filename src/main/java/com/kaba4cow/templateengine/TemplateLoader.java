@@ -0,0 +1,69 @@
+package com.kaba4cow.templateengine;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Interface for loading template strings by name.
+ * 
+ * @see TemplateRegistry
+ */
+@FunctionalInterface
+public interface TemplateLoader {
+
+	/**
+	 * Loads the template with the specified name.
+	 * 
+	 * @param name the name of the template
+	 * 
+	 * @return the template string
+	 * 
+	 * @throws IOException if the template cannot be loaded
+	 */
+	public String load(String name) throws IOException;
+
+	/**
+	 * Creates a {@code TemplateLoader} that resolves template names as paths relative to the specified directory.
+	 * Names resolving to paths outside of the directory, such as {@code ../secret.txt} or absolute paths, are rejected
+	 * with a {@code FileNotFoundException}.
+	 * 
+	 * @param directory the directory containing the templates
+	 * 
+	 * @return a new instance of {@code TemplateLoader}
+	 * 
+	 * @throws NullPointerException if {@code directory} is {@code null}
+	 */
+	public static TemplateLoader forDirectory(Path directory) {
+		Path root = directory.toAbsolutePath().normalize();
+		return name -> {
+			Path path = root.resolve(name).normalize();
+			if (!path.startsWith(root))
+				throw new FileNotFoundException(String.format("Template %s is outside of directory %s", name, root));
+			return TemplateReader.read(Files.newInputStream(path));
+		};
+	}
+
+	/**
+	 * Creates a {@code TemplateLoader} that resolves template names as resources of the specified class loader.
+	 * 
+	 * @param classLoader the class loader to load the resources with
+	 * 
+	 * @return a new instance of {@code TemplateLoader}
+	 * 
+	 * @throws NullPointerException if {@code classLoader} is {@code null}
+	 */
+	public static TemplateLoader forResources(ClassLoader classLoader) {
+		Objects.requireNonNull(classLoader);
+		return name -> {
+			InputStream input = classLoader.getResourceAsStream(name);
+			if (input == null)
+				throw new FileNotFoundException(String.format("Resource %s not found", name));
+			return TemplateReader.read(input);
+		};
+	}
+
+}
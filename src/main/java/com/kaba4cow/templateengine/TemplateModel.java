@@ -0,0 +1,51 @@
+package com.kaba4cow.templateengine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an interface or class whose accessors supply the placeholders of a template resource, for the
+ * {@code template-engine-processor} annotation processor.
+ * <p>
+ * Every value and list placeholder of the template is matched with a property of the annotated type by the rules of
+ * {@link TemplateProperties}: the placeholder {@code name} is supplied by {@code getName()}, by a public field
+ * {@code name} or, in a record, by the component accessor {@code name()}. List placeholders have to be supplied by a
+ * {@code Collection}, a {@code Supplier} or a {@code CompletionStage}. A placeholder without a matching method fails
+ * the build.
+ * </p>
+ * <p>
+ * The processor precompiles the template resource, as if it was listed by {@link PrecompiledTemplates}, and generates a
+ * {@link TemplateBinder} for the annotated type, named after it followed by {@code Binder}. The binder calls the
+ * accessors directly and writes their results to the slots of the template, without reflection or placeholder name
+ * lookups. Primitive results are bound unboxed.
+ * </p>
+ * 
+ * <pre>
+ * &#64;TemplateModel("templates/welcome.txt")
+ * public interface Welcome {
+ * 
+ * 	String getName();
+ * 
+ * 	int getUnreadMessages();
+ * 
+ * }
+ * 
+ * String result = WelcomeBinder.INSTANCE.render(welcome);
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface TemplateModel {
+
+	/**
+	 * The name of the template resource, as passed to {@link TemplateBuilder#forResource(String)}.
+	 * 
+	 * @return the resource name
+	 */
+	String value();
+
+}
@@ -0,0 +1,62 @@
+package com.kaba4cow.templateengine;
+
+/**
+ * Policies for rendering a path placeholder, such as <code>{{order.customer.name}}</code>, when an object along its
+ * path is {@code null}.
+ * 
+ * @see TemplateBuilder#nullPolicy(TemplateNullPolicy)
+ * @see TemplateBindings#nullPolicy(TemplateNullPolicy)
+ */
+public enum TemplateNullPolicy {
+
+	/**
+	 * Renders the placeholder as {@code null}, like a {@code null} value.
+	 */
+	RENDER_NULL {
+
+		@Override
+		Object missing(String placeholder, String path) {
+			return null;
+		}
+
+	},
+
+	/**
+	 * Renders the placeholder as an empty string, without formatting it.
+	 */
+	RENDER_EMPTY {
+
+		private final SafeText empty = SafeText.of("");
+
+		@Override
+		Object missing(String placeholder, String path) {
+			return empty;
+		}
+
+	},
+
+	/**
+	 * Fails the render with a {@code TemplateEngineException}.
+	 */
+	FAIL {
+
+		@Override
+		Object missing(String placeholder, String path) {
+			throw new TemplateEngineException("Value %s cannot be resolved: %s is null", placeholder, path);
+		}
+
+	};
+
+	/**
+	 * Gets the value a path placeholder is rendered as when an object along its path is {@code null}.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param path        the part of the path that is {@code null}
+	 * 
+	 * @return the value to render
+	 * 
+	 * @throws TemplateEngineException if the policy does not render the placeholder
+	 */
+	abstract Object missing(String placeholder, String path);
+
+}
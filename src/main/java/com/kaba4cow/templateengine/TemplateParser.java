@@ -0,0 +1,143 @@
+package com.kaba4cow.templateengine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a template string into {@code TemplateSegment}s.
+ * <p>
+ * Value and list placeholders are recognised in a single scan over the template. Every distinct placeholder name is
+ * assigned a slot index in order of first appearance, separately for values and lists.
+ * </p>
+ */
+final class TemplateParser {
+
+	static final String VALUE_DELIMITER_OPEN = "{{";
+	static final String VALUE_DELIMITER_CLOSE = "}}";
+	static final String VALUE_DELIMITER_FORMAT = ":";
+	static final String LIST_DELIMITER_OPEN = "[[";
+	static final String LIST_DELIMITER_CLOSE = "]]";
+	static final String LIST_DELIMITER_FORMAT = "::";
+
+	private final String template;
+	private final List<TemplateSegment> segments;
+	private final Map<String, Integer> valueSlots;
+	private final Map<String, Integer> listSlots;
+
+	TemplateParser(String template) {
+		this.template = template;
+		this.segments = new ArrayList<>();
+		this.valueSlots = new LinkedHashMap<>();
+		this.listSlots = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Parses the template.
+	 * 
+	 * @return the current {@code TemplateParser} instance
+	 * 
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter or value format is
+	 *                                 invalid
+	 */
+	TemplateParser parse() {
+		int startIndex = 0;
+		while (startIndex < template.length()) {
+			int valueIndex = template.indexOf(VALUE_DELIMITER_OPEN, startIndex);
+			int listIndex = template.indexOf(LIST_DELIMITER_OPEN, startIndex);
+			if (valueIndex == -1 && listIndex == -1) {
+				segments.add(new TemplateSegment.Literal(template.substring(startIndex)));
+				break;
+			}
+			boolean value = listIndex == -1 || valueIndex != -1 && valueIndex < listIndex;
+			int openIndex = value ? valueIndex : listIndex;
+			if (openIndex > startIndex)
+				segments.add(new TemplateSegment.Literal(template.substring(startIndex, openIndex)));
+			if (value) {
+				int closeIndex = template.indexOf(VALUE_DELIMITER_CLOSE, openIndex + VALUE_DELIMITER_OPEN.length());
+				if (closeIndex == -1)
+					throw new TemplateEngineException("Unclosed value placeholder");
+				String placeholder = template.substring(openIndex + VALUE_DELIMITER_OPEN.length(), closeIndex);
+				int formatIndex = formatIndex(placeholder);
+				String placeholderName = formatIndex == -1 ? placeholder : placeholder.substring(0, formatIndex);
+				TemplateValueFormat format = formatIndex == -1 ? null
+						: valueFormat(placeholder.substring(formatIndex + VALUE_DELIMITER_FORMAT.length()),
+								placeholderName);
+				segments.add(new TemplateSegment.ValuePlaceholder(placeholderName, slot(valueSlots, placeholderName),
+						format));
+				String root = TemplateProperties.pathRoot(placeholderName);
+				if (root != null)
+					slot(valueSlots, root);
+				startIndex = closeIndex + VALUE_DELIMITER_CLOSE.length();
+			} else {
+				int closeIndex = template.indexOf(LIST_DELIMITER_CLOSE, openIndex + LIST_DELIMITER_OPEN.length());
+				if (closeIndex == -1)
+					throw new TemplateEngineException("Unclosed list placeholder");
+				String placeholder = template.substring(openIndex + LIST_DELIMITER_OPEN.length(), closeIndex);
+				int formatIndex = placeholder.indexOf(LIST_DELIMITER_FORMAT);
+				if (formatIndex == -1)
+					throw new TemplateEngineException("List placeholder %s has no formatter", placeholder);
+				String placeholderName = placeholder.substring(0, formatIndex);
+				String placeholderFormat = placeholder.substring(formatIndex + LIST_DELIMITER_FORMAT.length());
+				TemplateListFormatter formatter = TemplateListFormatter.forName(placeholderFormat);
+				segments.add(new TemplateSegment.ListPlaceholder(placeholderName, slot(listSlots, placeholderName),
+						formatter));
+				startIndex = closeIndex + LIST_DELIMITER_CLOSE.length();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the segments of the template in order of appearance.
+	 */
+	List<TemplateSegment> segments() {
+		return segments;
+	}
+
+	/**
+	 * Gets the slot indices of value placeholder names in order of first appearance.
+	 */
+	Map<String, Integer> valueSlots() {
+		return valueSlots;
+	}
+
+	/**
+	 * Gets the slot indices of list placeholder names in order of first appearance.
+	 */
+	Map<String, Integer> listSlots() {
+		return listSlots;
+	}
+
+	/**
+	 * Gets the index of the delimiter starting the format of a value placeholder: the first colon followed by a format
+	 * specifier. Other colons are part of the placeholder name.
+	 */
+	private static int formatIndex(String placeholder) {
+		int formatIndex = placeholder.indexOf(VALUE_DELIMITER_FORMAT);
+		while (formatIndex != -1
+				&& !TemplateValueFormat.startsSpecifier(placeholder, formatIndex + VALUE_DELIMITER_FORMAT.length()))
+			formatIndex = placeholder.indexOf(VALUE_DELIMITER_FORMAT, formatIndex + 1);
+		return formatIndex;
+	}
+
+	private static TemplateValueFormat valueFormat(String specifier, String placeholder) {
+		try {
+			return TemplateValueFormat.forSpecifier(specifier);
+		} catch (IllegalArgumentException exception) {
+			throw new TemplateEngineException("Invalid format %s of value placeholder %s: %s", specifier, placeholder,
+					exception.getMessage());
+		}
+	}
+
+	private static int slot(Map<String, Integer> slots, String placeholder) {
+		Integer slot = slots.get(placeholder);
+		if (slot == null) {
+			slot = slots.size();
+			slots.put(placeholder, slot);
+		}
+		return slot;
+	}
+
+}
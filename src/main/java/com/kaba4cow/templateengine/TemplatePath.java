@@ -0,0 +1,126 @@
+package com.kaba4cow.templateengine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+
+/**
+ * The path of a value placeholder such as <code>{{order.customer.name}}</code>, split once when the template is
+ * compiled.
+ * <p>
+ * A path is resolved from the value bound to its root, <code>{{order}}</code>, by reading one property per step. A
+ * {@code Map} is read by key; any other object is read like {@link CompiledTemplate#binder(Class)} reads it. Every
+ * step caches the accessor of the last class it read from, so resolving a path over objects of the same classes
+ * involves no lookups at all.
+ * </p>
+ */
+final class TemplatePath {
+
+	static final char SEPARATOR = '.';
+
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final String placeholder;
+	private final int rootSlot;
+	private final Step[] steps;
+
+	/**
+	 * Creates a new {@code TemplatePath}.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * @param rootSlot    the slot index of the root of the path
+	 */
+	TemplatePath(String placeholder, int rootSlot) {
+		this.placeholder = placeholder;
+		this.rootSlot = rootSlot;
+		String[] names = placeholder.split("\\.");
+		this.steps = new Step[names.length - 1];
+		int parentLength = names[0].length();
+		for (int i = 1; i < names.length; i++) {
+			steps[i - 1] = new Step(names[i], placeholder.substring(0, parentLength));
+			parentLength += names[i].length() + 1;
+		}
+	}
+
+	/**
+	 * Gets the slot index of the root of this path.
+	 * 
+	 * @return the slot index
+	 */
+	int rootSlot() {
+		return rootSlot;
+	}
+
+	/**
+	 * Resolves this path from the specified root value.
+	 * 
+	 * @param root       the value bound to the root of the path
+	 * @param nullPolicy the policy applied if an object along the path is {@code null}
+	 * 
+	 * @return the resolved value
+	 * 
+	 * @throws TemplateEngineException if a property does not exist, or an object along the path is {@code null} and
+	 *                                 the policy fails
+	 */
+	Object resolve(Object root, TemplateNullPolicy nullPolicy) {
+		Object value = root;
+		for (Step step : steps) {
+			if (value == null)
+				return nullPolicy.missing(placeholder, step.parent);
+			value = step.read(value);
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return placeholder;
+	}
+
+	private static final class Step {
+
+		private final String property;
+		private final String parent;
+		private volatile Accessor accessor;
+
+		private Step(String property, String parent) {
+			this.property = property;
+			this.parent = parent;
+		}
+
+		private Object read(Object receiver) {
+			if (receiver instanceof Map)
+				return ((Map<?, ?>) receiver).get(property);
+			Class<?> type = receiver.getClass();
+			Accessor cached = accessor;
+			if (cached == null || cached.type != type)
+				accessor = cached = new Accessor(type, property, parent);
+			try {
+				return cached.handle.invokeExact(receiver);
+			} catch (RuntimeException | Error exception) {
+				throw exception;
+			} catch (Throwable throwable) {
+				throw new RuntimeException(String.format("Could not read property %s of %s", property, type.getName()),
+						throwable);
+			}
+		}
+
+	}
+
+	private static final class Accessor {
+
+		private final Class<?> type;
+		private final MethodHandle handle;
+
+		private Accessor(Class<?> type, String property, String parent) {
+			MethodHandle handle = BeanProperties.forType(type).accessor(property);
+			if (handle == null)
+				throw new TemplateEngineException("Property %s of %s does not exist in %s", property, parent,
+						type.getName());
+			this.type = type;
+			this.handle = handle.asType(ACCESSOR_TYPE);
+		}
+
+	}
+
+}
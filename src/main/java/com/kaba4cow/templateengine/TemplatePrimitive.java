@@ -0,0 +1,87 @@
+package com.kaba4cow.templateengine;
+
+/**
+ * Types of unboxed primitive values stored in {@code TemplateBindings}.
+ * <p>
+ * A primitive value is stored as raw {@code long} bits next to one of these constants, which tells how to decode it.
+ * </p>
+ */
+enum TemplatePrimitive {
+
+	LONG {
+
+		@Override
+		void appendTo(StringBuilder builder, long bits) {
+			builder.append(bits);
+		}
+
+		@Override
+		Object box(long bits) {
+			return bits;
+		}
+
+	},
+	DOUBLE {
+
+		@Override
+		void appendTo(StringBuilder builder, long bits) {
+			builder.append(Double.longBitsToDouble(bits));
+		}
+
+		@Override
+		Object box(long bits) {
+			return Double.longBitsToDouble(bits);
+		}
+
+	},
+	FLOAT {
+
+		@Override
+		void appendTo(StringBuilder builder, long bits) {
+			builder.append(Float.intBitsToFloat((int) bits));
+		}
+
+		@Override
+		Object box(long bits) {
+			return Float.intBitsToFloat((int) bits);
+		}
+
+	},
+	BOOLEAN {
+
+		@Override
+		void appendTo(StringBuilder builder, long bits) {
+			builder.append(bits != 0L);
+		}
+
+		@Override
+		Object box(long bits) {
+			return bits != 0L;
+		}
+
+	},
+	CHAR {
+
+		@Override
+		void appendTo(StringBuilder builder, long bits) {
+			builder.append((char) bits);
+		}
+
+		@Override
+		Object box(long bits) {
+			return (char) bits;
+		}
+
+	};
+
+	/**
+	 * Appends the string representation of the value with the specified bits.
+	 */
+	abstract void appendTo(StringBuilder builder, long bits);
+
+	/**
+	 * Returns the value with the specified bits as a wrapper object.
+	 */
+	abstract Object box(long bits);
+
+}
@@ -0,0 +1,73 @@
+package com.kaba4cow.templateengine;
+
+/**
+ * The naming rules matching placeholders with the properties of objects, shared by
+ * {@link CompiledTemplate#binder(Class)} and the {@code template-engine-processor} annotation processor, so generated
+ * binders and runtime binding read the same properties.
+ * <p>
+ * A property is read by a {@code get} or {@code is} getter, by a public field or, for records only, by a component
+ * accessor named after it. Other methods are never invoked, so a template cannot call methods such as
+ * {@code File.delete()} on a bound object.
+ * </p>
+ * <p>
+ * <b>Internal API.</b> This class is public only so that the annotation processor can share these rules. Applications
+ * should not depend on it; it may change or move in any release.
+ * </p>
+ */
+public final class TemplateProperties {
+
+	/**
+	 * The name of the superclass of all records, checked by name since records do not exist in Java 8.
+	 */
+	public static final String RECORD_CLASS_NAME = "java.lang.Record";
+
+	private TemplateProperties() {}
+
+	/**
+	 * Gets the property name of a {@code get} or {@code is} getter, decapitalized like {@code java.beans.Introspector}
+	 * does.
+	 * 
+	 * @param methodName  the name of the method
+	 * @param booleanType whether the method returns a {@code boolean}, which is required of {@code is} getters
+	 * 
+	 * @return the property name, or {@code null} if the method is not a getter
+	 */
+	public static String propertyName(String methodName, boolean booleanType) {
+		String name;
+		if (methodName.startsWith("get") && methodName.length() > 3)
+			name = methodName.substring(3);
+		else if (methodName.startsWith("is") && methodName.length() > 2 && booleanType)
+			name = methodName.substring(2);
+		else
+			return null;
+		if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1)))
+			return name;
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+
+	/**
+	 * Gets the root name of the specified placeholder name, if it is a path such as <code>{{order.customer.name}}</code>:
+	 * Java identifiers separated by dots.
+	 * 
+	 * @param placeholder the name of the placeholder
+	 * 
+	 * @return the root name, or {@code null} if the placeholder is not a path
+	 */
+	public static String pathRoot(String placeholder) {
+		int separatorIndex = placeholder.indexOf(TemplatePath.SEPARATOR);
+		if (separatorIndex == -1)
+			return null;
+		boolean nameStart = true;
+		for (int i = 0; i < placeholder.length(); i++) {
+			char c = placeholder.charAt(i);
+			if (c == TemplatePath.SEPARATOR && !nameStart)
+				nameStart = true;
+			else if (nameStart ? Character.isJavaIdentifierStart(c) : Character.isJavaIdentifierPart(c))
+				nameStart = false;
+			else
+				return null;
+		}
+		return nameStart ? null : placeholder.substring(0, separatorIndex);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.kaba4cow.templateengine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.stream.Collectors;
+
+/**
+ * Reads template strings from input streams.
+ */
+final class TemplateReader {
+
+	private TemplateReader() {}
+
+	/**
+	 * Reads all lines from the specified input and joins them with {@code \n}, closing the input afterwards.
+	 * 
+	 * @param input the input to read
+	 * 
+	 * @return the template string
+	 * 
+	 * @throws IOException if the input cannot be read
+	 */
+	static String read(InputStream input) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
+			return reader.lines().collect(Collectors.joining("\n"));
+		}
+	}
+
+}
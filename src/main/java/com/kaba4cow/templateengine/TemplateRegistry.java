@@ -0,0 +1,479 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A cache of {@code CompiledTemplate}s loaded by name.
+ * <p>
+ * Templates are loaded with a {@code TemplateLoader}, compiled once and kept until the total weight of the cached
+ * templates exceeds the configured maximum. The weight of a template is the length of its template string. When the
+ * maximum weight is exceeded, templates that have not been used recently are evicted. Recency is approximated with a
+ * second chance queue: getting a cached template only marks it as used, without taking a lock, and eviction gives
+ * templates used since they were last considered another pass through the queue.
+ * </p>
+ * <p>
+ * A {@code TemplateRegistry} is safe to use from multiple threads. Cached {@code CompiledTemplate}s are immutable, so
+ * a template being rendered is never affected by the registry replacing or evicting it.
+ * </p>
+ * 
+ * @see TemplateLoader
+ * @see CompiledTemplate
+ */
+public class TemplateRegistry implements AutoCloseable {
+
+	/**
+	 * The default maximum total weight of cached templates, in characters.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 16L * 1024L * 1024L;
+
+	private static final Logger LOGGER = Logger.getLogger(TemplateRegistry.class.getName());
+
+	private final TemplateLoader loader;
+	private final Path directory;
+	private final ConcurrentMap<String, Entry> templates;
+	private final Queue<Entry> queue;
+	private final Object lock;
+	private final LongAdder hitCount;
+	private final LongAdder missCount;
+	private final LongAdder evictionCount;
+	private long maximumWeight;
+	private long weight;
+	private volatile long changeCount;
+	private TemplateWatcher watcher;
+	private volatile Consumer<? super Exception> watchErrorHandler;
+
+	private TemplateRegistry(TemplateLoader loader, Path directory) {
+		this.loader = Objects.requireNonNull(loader);
+		this.directory = directory;
+		this.templates = new ConcurrentHashMap<>();
+		this.queue = new ArrayDeque<>();
+		this.lock = new Object();
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+		this.evictionCount = new LongAdder();
+		this.maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+		this.weight = 0L;
+		this.changeCount = 0L;
+		this.watcher = null;
+		this.watchErrorHandler = this::logWatchError;
+	}
+
+	/**
+	 * Creates a new {@code TemplateRegistry} that loads templates with the specified loader.
+	 * 
+	 * @param loader the loader of template strings
+	 * 
+	 * @return a new instance of {@code TemplateRegistry}
+	 * 
+	 * @throws NullPointerException if {@code loader} is {@code null}
+	 */
+	public static TemplateRegistry forLoader(TemplateLoader loader) {
+		return new TemplateRegistry(loader, null);
+	}
+
+	/**
+	 * Creates a new {@code TemplateRegistry} that loads templates from files relative to the specified directory.
+	 * 
+	 * @param directory the directory containing the templates
+	 * 
+	 * @return a new instance of {@code TemplateRegistry}
+	 * 
+	 * @throws NullPointerException if {@code directory} is {@code null}
+	 */
+	public static TemplateRegistry forDirectory(String directory) {
+		Path path = Paths.get(directory).toAbsolutePath().normalize();
+		return new TemplateRegistry(TemplateLoader.forDirectory(path), path);
+	}
+
+	/**
+	 * Creates a new {@code TemplateRegistry} that loads templates from resources.
+	 * 
+	 * @return a new instance of {@code TemplateRegistry}
+	 */
+	public static TemplateRegistry forResources() {
+		return new TemplateRegistry(TemplateLoader.forResources(TemplateRegistry.class.getClassLoader()), null);
+	}
+
+	/**
+	 * Sets the maximum total weight of cached templates. Templates are evicted as needed to fit the new maximum.
+	 * 
+	 * @param maximumWeight the maximum total length of cached template strings
+	 * 
+	 * @return the current {@code TemplateRegistry} instance
+	 * 
+	 * @throws IllegalArgumentException if {@code maximumWeight} is negative
+	 */
+	public TemplateRegistry maximumWeight(long maximumWeight) {
+		if (maximumWeight < 0L)
+			throw new IllegalArgumentException(String.format("Maximum weight %s is negative", maximumWeight));
+		synchronized (lock) {
+			this.maximumWeight = maximumWeight;
+			evict();
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the maximum total weight of cached templates.
+	 * 
+	 * @return the maximum total length of cached template strings
+	 */
+	public long maximumWeight() {
+		synchronized (lock) {
+			return maximumWeight;
+		}
+	}
+
+	/**
+	 * Sets the handler of errors occurring while the template directory is watched, such as a new subdirectory that
+	 * cannot be watched, an unexpected exception thrown while reloading a template, or the watch service failing to
+	 * close. Watching continues after an error is handled. By default, errors are logged as warnings to the
+	 * {@code java.util.logging} logger named after this class.
+	 * 
+	 * @param watchErrorHandler the handler of watch errors
+	 * 
+	 * @return the current {@code TemplateRegistry} instance
+	 * 
+	 * @throws NullPointerException if {@code watchErrorHandler} is {@code null}
+	 * 
+	 * @see #watch()
+	 */
+	public TemplateRegistry watchErrorHandler(Consumer<? super Exception> watchErrorHandler) {
+		this.watchErrorHandler = Objects.requireNonNull(watchErrorHandler);
+		return this;
+	}
+
+	/**
+	 * Starts watching the template directory and its subdirectories for changes.
+	 * <p>
+	 * Cached templates whose files are modified are loaded and compiled again on a background thread, then replace the
+	 * previous version in the cache. Templates being rendered keep using the version they were obtained with, and
+	 * rendering never waits for a reload. A template whose new version cannot be compiled keeps its previous version;
+	 * a template whose file is deleted is removed from the cache. Errors occurring while watching are reported to the
+	 * {@linkplain #watchErrorHandler(Consumer) watch error handler}.
+	 * </p>
+	 * <p>
+	 * Only registries created with {@link #forDirectory(String)} can be watched. Calling this method on a registry
+	 * that is already being watched has no effect.
+	 * </p>
+	 * 
+	 * @return the current {@code TemplateRegistry} instance
+	 * 
+	 * @throws IllegalStateException if this registry does not load templates from a directory
+	 * @throws RuntimeException      if the directory cannot be watched
+	 * 
+	 * @see #close()
+	 */
+	public TemplateRegistry watch() {
+		if (directory == null)
+			throw new IllegalStateException("Only directory based registries can be watched");
+		synchronized (lock) {
+			if (watcher == null) {
+				try {
+					watcher = new TemplateWatcher(this, directory);
+				} catch (IOException exception) {
+					throw new RuntimeException(String.format("Could not watch directory %s", directory), exception);
+				}
+				watcher.start();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Stops watching the template directory, if it is being watched.
+	 * 
+	 * @see #watch()
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (watcher != null) {
+				watcher.close();
+				watcher = null;
+			}
+		}
+	}
+
+	/**
+	 * Gets the compiled template with the specified name, loading and compiling it if it is not cached.
+	 * 
+	 * @param name the name of the template
+	 * 
+	 * @return the compiled template
+	 * 
+	 * @throws NullPointerException    if {@code name} is {@code null}
+	 * @throws RuntimeException        if the template cannot be loaded
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
+	 */
+	public CompiledTemplate get(String name) {
+		Entry entry = templates.get(Objects.requireNonNull(name));
+		if (entry != null) {
+			hitCount.increment();
+			return entry.access();
+		}
+		missCount.increment();
+		long changes = changeCount;
+		CompiledTemplate template = CompiledTemplate.compile(load(name));
+		synchronized (lock) {
+			entry = templates.get(name);
+			if (entry != null)
+				return entry.access();
+			if (changeCount == changes)
+				put(name, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Creates a new {@code TemplateBuilder} for the template with the specified name.
+	 * 
+	 * @param name the name of the template
+	 * 
+	 * @return a new instance of {@code TemplateBuilder}
+	 * 
+	 * @throws NullPointerException    if {@code name} is {@code null}
+	 * @throws RuntimeException        if the template cannot be loaded
+	 * @throws TemplateEngineException if a placeholder is not properly closed or a list formatter is invalid
+	 * 
+	 * @see #get(String)
+	 */
+	public TemplateBuilder builder(String name) {
+		return TemplateBuilder.forTemplate(get(name));
+	}
+
+	/**
+	 * Removes the template with the specified name from the cache.
+	 * 
+	 * @param name the name of the template
+	 * 
+	 * @throws NullPointerException if {@code name} is {@code null}
+	 */
+	public void invalidate(String name) {
+		Objects.requireNonNull(name);
+		synchronized (lock) {
+			Entry entry = templates.remove(name);
+			if (entry != null)
+				weight -= weight(entry.template);
+		}
+	}
+
+	/**
+	 * Removes all templates from the cache.
+	 */
+	public void invalidateAll() {
+		synchronized (lock) {
+			templates.clear();
+			queue.clear();
+			weight = 0L;
+		}
+	}
+
+	/**
+	 * Gets the number of cached templates.
+	 * 
+	 * @return the number of cached templates
+	 */
+	public int size() {
+		return templates.size();
+	}
+
+	/**
+	 * Gets the total weight of cached templates.
+	 * 
+	 * @return the total length of cached template strings
+	 */
+	public long weight() {
+		synchronized (lock) {
+			return weight;
+		}
+	}
+
+	/**
+	 * Gets the number of times {@link #get(String)} found a cached template.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long hitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Gets the number of times {@link #get(String)} had to load a template.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long missCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Gets the number of templates evicted to stay within the maximum weight.
+	 * 
+	 * @return the number of evictions
+	 */
+	public long evictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Reports an error occurring while the template directory is watched.
+	 */
+	void watchFailed(Exception exception) {
+		watchErrorHandler.accept(exception);
+	}
+
+	/**
+	 * Loads and compiles again every cached template stored in the specified file.
+	 */
+	void reload(Path path) {
+		changed();
+		List<String> names = new ArrayList<>();
+		for (String name : templates.keySet())
+			if (directory.resolve(name).normalize().equals(path))
+				names.add(name);
+		for (String name : names)
+			reload(name);
+	}
+
+	/**
+	 * Loads and compiles again every cached template.
+	 */
+	void reloadAll() {
+		changed();
+		for (String name : new ArrayList<>(templates.keySet()))
+			reload(name);
+	}
+
+	/**
+	 * Records a change of the template files, so that templates being loaded concurrently, which may have been read
+	 * before the change, are not cached.
+	 */
+	private void changed() {
+		synchronized (lock) {
+			changeCount++;
+		}
+	}
+
+	private void reload(String name) {
+		CompiledTemplate template;
+		try {
+			template = CompiledTemplate.compile(loader.load(name));
+		} catch (IOException | UncheckedIOException exception) {
+			invalidate(name);
+			return;
+		} catch (TemplateEngineException exception) {
+			return;
+		}
+		synchronized (lock) {
+			Entry previous = templates.remove(name);
+			if (previous != null) {
+				weight -= weight(previous.template);
+				put(name, template);
+			}
+		}
+	}
+
+	private void logWatchError(Exception exception) {
+		LOGGER.log(Level.WARNING, String.format("Error watching template directory %s", directory), exception);
+	}
+
+	private String load(String name) {
+		try {
+			return loader.load(name);
+		} catch (IOException exception) {
+			throw new RuntimeException(String.format("Could not load template %s", name), exception);
+		}
+	}
+
+	/**
+	 * Caches the specified template, evicting others as needed. Must be called holding the lock.
+	 */
+	private void put(String name, CompiledTemplate template) {
+		long templateWeight = weight(template);
+		if (templateWeight > maximumWeight)
+			return;
+		Entry entry = new Entry(name, template);
+		templates.put(name, entry);
+		queue.add(entry);
+		weight += templateWeight;
+		evict();
+		if (queue.size() > 2 * templates.size() + 16)
+			queue.removeIf(queued -> templates.get(queued.name) != queued);
+	}
+
+	/**
+	 * Evicts templates from the head of the queue until the total weight fits the maximum. A template used since it was
+	 * queued is given a second chance and queued again instead, at most once per template and call. Must be called
+	 * holding the lock.
+	 */
+	private void evict() {
+		int secondChances = queue.size();
+		while (weight > maximumWeight && !queue.isEmpty()) {
+			Entry entry = queue.remove();
+			if (templates.get(entry.name) != entry)
+				continue;
+			if (entry.used && secondChances-- > 0) {
+				entry.used = false;
+				queue.add(entry);
+				continue;
+			}
+			templates.remove(entry.name);
+			weight -= weight(entry.template);
+			evictionCount.increment();
+		}
+	}
+
+	private static long weight(CompiledTemplate template) {
+		return template.template().length();
+	}
+
+	/**
+	 * Returns a string representation of this {@code TemplateRegistry}.
+	 * 
+	 * @return a string representation of the current state of the cache
+	 */
+	@Override
+	public String toString() {
+		return String.format("TemplateRegistry [size=%s, weight=%s, maximumWeight=%s, hits=%s, misses=%s, evictions=%s]",
+				size(), weight(), maximumWeight(), hitCount(), missCount(), evictionCount());
+	}
+
+	private static final class Entry {
+
+		private final String name;
+		private final CompiledTemplate template;
+		private volatile boolean used;
+
+		private Entry(String name, CompiledTemplate template) {
+			this.name = name;
+			this.template = template;
+			this.used = false;
+		}
+
+		/**
+		 * Marks the template as used, writing to the entry only the first time since eviction last considered it.
+		 */
+		private CompiledTemplate access() {
+			if (!used)
+				used = true;
+			return template;
+		}
+
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * A class generated for a single template, rendering it with straight-line code instead of walking its parsed
+ * segments.
+ * <p>
+ * Static text is appended from string constants and slot indices are inlined, so rendering involves no dispatch over
+ * segments. Subclasses are generated as bytecode at runtime by {@link CompiledTemplate#compileGenerated(String)}, or as
+ * source at build time by {@link TemplateRendererGenerator#generateSource(CompiledTemplate, String, String)}, and are
+ * not meant to be written by hand; the protected methods of this class are the support code they call.
+ * </p>
+ */
+public abstract class TemplateRenderer {
+
+	/**
+	 * Creates a new {@code TemplateRenderer}.
+	 */
+	protected TemplateRenderer() {}
+
+	/**
+	 * Renders the template into the specified output.
+	 * 
+	 * @param output   the output to render into
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 */
+	protected abstract void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper)
+			throws IOException;
+
+	/**
+	 * Appends the value bound to the specified slot, escaped with the specified escaper.
+	 * 
+	 * @param output   the output to append to
+	 * @param bindings the bindings holding the value
+	 * @param slot     the slot index of the value
+	 * @param escaper  the escaping strategy for the value
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if the value is not provided
+	 */
+	protected static void appendValue(Appendable output, TemplateBindings bindings, int slot,
+			TemplateStringEscaper escaper) throws IOException {
+		if (!bindings.hasValue(slot))
+			throw new TemplateEngineException("Value %s not provided", bindings.template().valueNames().get(slot));
+		TemplateAppender.appendValue(output, bindings, slot, escaper);
+	}
+
+	/**
+	 * Appends the value bound to the specified slot, formatted with the specified format and escaped with the specified
+	 * escaper.
+	 * 
+	 * @param output   the output to append to
+	 * @param bindings the bindings holding the value
+	 * @param slot     the slot index of the value
+	 * @param format   the format of the value, as returned by {@link #valueFormat(String)}
+	 * @param escaper  the escaping strategy for the value
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if the value is not provided or cannot be formatted with the format
+	 */
+	protected static void appendValue(Appendable output, TemplateBindings bindings, int slot,
+			TemplateValueFormat format, TemplateStringEscaper escaper) throws IOException {
+		if (!bindings.hasValue(slot))
+			throw new TemplateEngineException("Value %s not provided", bindings.template().valueNames().get(slot));
+		TemplateAppender.appendFormatted(output, bindings, slot, format, escaper);
+	}
+
+	/**
+	 * Appends the list bound to the specified slot, formatted with the specified formatter.
+	 * 
+	 * @param output    the output to append to
+	 * @param bindings  the bindings holding the list
+	 * @param slot      the slot index of the list
+	 * @param formatter the formatter of the list
+	 * @param escaper   the escaping strategy for the list elements
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if the list is not provided
+	 */
+	protected static void appendList(Appendable output, TemplateBindings bindings, int slot,
+			TemplateListFormatter formatter, TemplateStringEscaper escaper) throws IOException {
+		Collection<?> list = bindings.hasList(slot) ? bindings.list(slot) : null;
+		if (list == null)
+			throw new TemplateEngineException("List %s not provided", bindings.template().listNames().get(slot));
+		formatter.formatTo(list, output, escaper);
+	}
+
+	/**
+	 * Creates the template rendered by a renderer generated at build time, without parsing it.
+	 * 
+	 * @param renderer   the generated renderer
+	 * @param template   the template string the renderer was generated from
+	 * @param valueNames the value placeholder names in order of slot index
+	 * @param listNames  the list placeholder names in order of slot index
+	 * 
+	 * @return a new instance of {@code CompiledTemplate}
+	 */
+	protected static CompiledTemplate precompiled(TemplateRenderer renderer, String template, String[] valueNames,
+			String[] listNames) {
+		return CompiledTemplate.precompiled(template, renderer, valueNames, listNames);
+	}
+
+	/**
+	 * Compiles the specified value format specifier.
+	 * 
+	 * @param specifier the format specifier of a value placeholder
+	 * 
+	 * @return the compiled format, to be passed to
+	 *         {@link #appendValue(Appendable, TemplateBindings, int, TemplateValueFormat, TemplateStringEscaper)}
+	 * 
+	 * @throws IllegalArgumentException if the specifier is invalid
+	 */
+	protected static TemplateValueFormat valueFormat(String specifier) {
+		return TemplateValueFormat.forSpecifier(specifier);
+	}
+
+}
@@ -0,0 +1,444 @@
+package com.kaba4cow.templateengine;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates {@code TemplateRenderer} subclasses as bytecode and loads them.
+ * <p>
+ * The class file is written directly, with the same straight-line code {@code TemplateRendererGenerator} writes as
+ * source: static text is appended from string constants, and placeholders call the support methods of
+ * {@code TemplateRenderer} with their slot index inlined. No compiler is involved, so generating a renderer costs
+ * little more than loading a class, and works on any Java runtime and class path layout. The generated code has no
+ * branches, so its methods need no stack map frames.
+ * </p>
+ */
+final class TemplateRendererCompiler {
+
+	static final String PACKAGE_NAME = "com.kaba4cow.templateengine.generated";
+
+	private static final AtomicLong CLASS_COUNT = new AtomicLong();
+
+	private TemplateRendererCompiler() {}
+
+	/**
+	 * Generates, loads and instantiates a renderer for the specified segments.
+	 * 
+	 * @param segments the segments of the template
+	 * 
+	 * @return a new renderer
+	 * 
+	 * @throws TemplateEngineException if the template is too large for a class file, or the class cannot be loaded
+	 */
+	static TemplateRenderer compile(TemplateSegment[] segments) {
+		String className = PACKAGE_NAME + ".GeneratedTemplateRenderer" + CLASS_COUNT.incrementAndGet();
+		ClassWriter writer = new ClassWriter(className.replace('.', '/'));
+		for (TemplateSegment segment : segments)
+			segment.accept(writer);
+		byte[] bytes = writer.toByteArray();
+		try {
+			ClassLoader classLoader = new GeneratedClassLoader(TemplateRenderer.class.getClassLoader(), className,
+					bytes);
+			return classLoader.loadClass(className).asSubclass(TemplateRenderer.class).getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | SecurityException | LinkageError exception) {
+			throw new TemplateEngineException(exception, "Renderer class %s cannot be loaded: %s", className,
+					exception);
+		}
+	}
+
+	/**
+	 * Writes the class file of a renderer, one statement per segment.
+	 */
+	private static final class ClassWriter implements TemplateSegment.Visitor {
+
+		private static final int MAGIC = 0xCAFEBABE;
+		private static final int VERSION = 52;
+		private static final int MAXIMUM_CONSTANTS = 0xFFFF;
+		private static final int MAXIMUM_CODE_LENGTH = 0xFFFF;
+
+		private static final int CONSTANT_UTF8 = 1;
+		private static final int CONSTANT_INTEGER = 3;
+		private static final int CONSTANT_CLASS = 7;
+		private static final int CONSTANT_STRING = 8;
+		private static final int CONSTANT_FIELD = 9;
+		private static final int CONSTANT_METHOD = 10;
+		private static final int CONSTANT_INTERFACE_METHOD = 11;
+		private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+		private static final int ACC_PUBLIC = 0x0001;
+		private static final int ACC_PRIVATE = 0x0002;
+		private static final int ACC_PROTECTED = 0x0004;
+		private static final int ACC_STATIC = 0x0008;
+		private static final int ACC_FINAL = 0x0010;
+		private static final int ACC_SUPER = 0x0020;
+
+		private static final int ICONST_0 = 0x03;
+		private static final int BIPUSH = 0x10;
+		private static final int SIPUSH = 0x11;
+		private static final int LDC = 0x12;
+		private static final int LDC_W = 0x13;
+		private static final int ALOAD_0 = 0x2A;
+		private static final int POP = 0x57;
+		private static final int RETURN = 0xB1;
+		private static final int GETSTATIC = 0xB2;
+		private static final int PUTSTATIC = 0xB3;
+		private static final int INVOKESPECIAL = 0xB7;
+		private static final int INVOKESTATIC = 0xB8;
+		private static final int INVOKEINTERFACE = 0xB9;
+
+		private static final String RENDERER = internalName(TemplateRenderer.class);
+		private static final String APPENDABLE = descriptor(Appendable.class);
+		private static final String BINDINGS = descriptor(TemplateBindings.class);
+		private static final String ESCAPER = descriptor(TemplateStringEscaper.class);
+		private static final String FORMAT = descriptor(TemplateValueFormat.class);
+		private static final String FORMATTER = descriptor(TemplateListFormatter.class);
+		private static final String RENDER = "(" + APPENDABLE + BINDINGS + ESCAPER + ")V";
+
+		private final String className;
+		private final Map<String, Integer> constants;
+		private final Map<String, Integer> formats;
+		private final Bytes pool;
+		private final Bytes fields;
+		private final Bytes methods;
+		private final int thisClass;
+		private final int superClass;
+		private int constantCount;
+		private int methodCount;
+		private int chunkCount;
+		private int statementCount;
+		private Bytes code;
+
+		private ClassWriter(String className) {
+			this.className = className;
+			this.constants = new HashMap<>();
+			this.formats = new LinkedHashMap<>();
+			this.pool = new Bytes();
+			this.fields = new Bytes();
+			this.methods = new Bytes();
+			this.constantCount = 1;
+			this.thisClass = classConstant(className);
+			this.superClass = classConstant(RENDERER);
+		}
+
+		@Override
+		public void literal(String text) {
+			int append = reference(CONSTANT_INTERFACE_METHOD, internalName(Appendable.class), "append",
+					"(Ljava/lang/CharSequence;)Ljava/lang/Appendable;");
+			for (int start = 0; start < text.length(); start += TemplateRendererGenerator.MAXIMUM_LITERAL_LENGTH) {
+				int end = Math.min(text.length(), start + TemplateRendererGenerator.MAXIMUM_LITERAL_LENGTH);
+				statement();
+				code.u1(ALOAD_0);
+				ldc(stringConstant(text.substring(start, end)));
+				code.u1(INVOKEINTERFACE);
+				code.u2(append);
+				code.u1(2);
+				code.u1(0);
+				code.u1(POP);
+			}
+		}
+
+		@Override
+		public void value(int slot, TemplateValueFormat format) {
+			statement();
+			code.u1(ALOAD_0);
+			code.u1(ALOAD_0 + 1);
+			push(slot);
+			String descriptor = "(" + APPENDABLE + BINDINGS + "I" + ESCAPER + ")V";
+			if (format != null) {
+				code.u1(GETSTATIC);
+				code.u2(format(format.specifier()));
+				descriptor = "(" + APPENDABLE + BINDINGS + "I" + FORMAT + ESCAPER + ")V";
+			}
+			code.u1(ALOAD_0 + 2);
+			code.u1(INVOKESTATIC);
+			code.u2(reference(CONSTANT_METHOD, RENDERER, "appendValue", descriptor));
+		}
+
+		@Override
+		public void list(int slot, TemplateListFormatter formatter) {
+			statement();
+			code.u1(ALOAD_0);
+			code.u1(ALOAD_0 + 1);
+			push(slot);
+			code.u1(GETSTATIC);
+			code.u2(reference(CONSTANT_FIELD, internalName(TemplateListFormatter.class), formatter.name(), FORMATTER));
+			code.u1(ALOAD_0 + 2);
+			code.u1(INVOKESTATIC);
+			code.u2(reference(CONSTANT_METHOD, RENDERER, "appendList",
+					"(" + APPENDABLE + BINDINGS + "I" + FORMATTER + ESCAPER + ")V"));
+		}
+
+		/**
+		 * Writes the methods that are complete once all segments are visited, and assembles the class file.
+		 */
+		private byte[] toByteArray() {
+			if (statementCount > 0)
+				endChunk();
+			Bytes render = new Bytes();
+			for (int chunk = 0; chunk < chunkCount; chunk++) {
+				render.u1(ALOAD_0 + 1);
+				render.u1(ALOAD_0 + 2);
+				render.u1(ALOAD_0 + 3);
+				render.u1(INVOKESTATIC);
+				render.u2(reference(CONSTANT_METHOD, className, "render" + chunk, RENDER));
+			}
+			render.u1(RETURN);
+			method(ACC_PROTECTED, "render", RENDER, render, 3, 4);
+			Bytes constructor = new Bytes();
+			constructor.u1(ALOAD_0);
+			constructor.u1(INVOKESPECIAL);
+			constructor.u2(reference(CONSTANT_METHOD, RENDERER, "<init>", "()V"));
+			constructor.u1(RETURN);
+			method(ACC_PUBLIC, "<init>", "()V", constructor, 1, 1);
+			if (!formats.isEmpty()) {
+				Bytes initializer = new Bytes();
+				int valueFormat = reference(CONSTANT_METHOD, RENDERER, "valueFormat", "(Ljava/lang/String;)" + FORMAT);
+				for (Map.Entry<String, Integer> format : formats.entrySet()) {
+					ldc(initializer, stringConstant(format.getKey()));
+					initializer.u1(INVOKESTATIC);
+					initializer.u2(valueFormat);
+					initializer.u1(PUTSTATIC);
+					initializer.u2(format.getValue());
+				}
+				initializer.u1(RETURN);
+				method(ACC_STATIC, "<clinit>", "()V", initializer, 1, 0);
+			}
+			Bytes classFile = new Bytes();
+			classFile.u4(MAGIC);
+			classFile.u2(0);
+			classFile.u2(VERSION);
+			classFile.u2(constantCount);
+			classFile.append(pool);
+			classFile.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			classFile.u2(thisClass);
+			classFile.u2(superClass);
+			classFile.u2(0);
+			classFile.u2(formats.size());
+			classFile.append(fields);
+			classFile.u2(methodCount);
+			classFile.append(methods);
+			classFile.u2(0);
+			return classFile.toByteArray();
+		}
+
+		private void statement() {
+			if (statementCount == TemplateRendererGenerator.MAXIMUM_METHOD_STATEMENTS)
+				endChunk();
+			if (statementCount == 0)
+				code = new Bytes();
+			statementCount++;
+		}
+
+		private void endChunk() {
+			code.u1(RETURN);
+			method(ACC_PRIVATE | ACC_STATIC, "render" + chunkCount++, RENDER, code, 5, 3);
+			statementCount = 0;
+		}
+
+		private void method(int access, String name, String descriptor, Bytes body, int maximumStack,
+				int maximumLocals) {
+			if (body.size() > MAXIMUM_CODE_LENGTH)
+				throw new TemplateEngineException("Template is too large to generate a renderer for");
+			methods.u2(access);
+			methods.u2(utf8Constant(name));
+			methods.u2(utf8Constant(descriptor));
+			methods.u2(1);
+			methods.u2(utf8Constant("Code"));
+			methods.u4(12 + body.size());
+			methods.u2(maximumStack);
+			methods.u2(maximumLocals);
+			methods.u4(body.size());
+			methods.append(body);
+			methods.u2(0);
+			methods.u2(0);
+			methodCount++;
+		}
+
+		/**
+		 * Gets the static field holding the compiled format of the specified specifier, declaring it on first use.
+		 */
+		private int format(String specifier) {
+			Integer field = formats.get(specifier);
+			if (field == null) {
+				String name = "FORMAT_" + formats.size();
+				fields.u2(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+				fields.u2(utf8Constant(name));
+				fields.u2(utf8Constant(FORMAT));
+				fields.u2(0);
+				field = reference(CONSTANT_FIELD, className, name, FORMAT);
+				formats.put(specifier, field);
+			}
+			return field;
+		}
+
+		private void push(int value) {
+			if (value <= 5)
+				code.u1(ICONST_0 + value);
+			else if (value <= Byte.MAX_VALUE) {
+				code.u1(BIPUSH);
+				code.u1(value);
+			} else if (value <= Short.MAX_VALUE) {
+				code.u1(SIPUSH);
+				code.u2(value);
+			} else
+				ldc(integerConstant(value));
+		}
+
+		private void ldc(int index) {
+			ldc(code, index);
+		}
+
+		private static void ldc(Bytes code, int index) {
+			if (index <= 0xFF) {
+				code.u1(LDC);
+				code.u1(index);
+			} else {
+				code.u1(LDC_W);
+				code.u2(index);
+			}
+		}
+
+		private int utf8Constant(String value) {
+			String key = CONSTANT_UTF8 + ":" + value;
+			Integer index = constants.get(key);
+			if (index != null)
+				return index;
+			pool.u1(CONSTANT_UTF8);
+			pool.utf8(value);
+			return add(key);
+		}
+
+		private int integerConstant(int value) {
+			String key = CONSTANT_INTEGER + ":" + value;
+			Integer index = constants.get(key);
+			if (index != null)
+				return index;
+			pool.u1(CONSTANT_INTEGER);
+			pool.u4(value);
+			return add(key);
+		}
+
+		private int classConstant(String internalName) {
+			return constant(CONSTANT_CLASS, internalName, utf8Constant(internalName));
+		}
+
+		private int stringConstant(String value) {
+			return constant(CONSTANT_STRING, value, utf8Constant(value));
+		}
+
+		private int reference(int tag, String owner, String name, String descriptor) {
+			int ownerIndex = classConstant(owner);
+			int nameAndType = constant(CONSTANT_NAME_AND_TYPE, name + " " + descriptor, utf8Constant(name),
+					utf8Constant(descriptor));
+			return constant(tag, owner + "." + name + " " + descriptor, ownerIndex, nameAndType);
+		}
+
+		/**
+		 * Gets the constant with the specified tag and operands, adding it to the pool if it is not there yet.
+		 */
+		private int constant(int tag, String value, int... operands) {
+			String key = tag + ":" + value;
+			Integer index = constants.get(key);
+			if (index != null)
+				return index;
+			pool.u1(tag);
+			for (int operand : operands)
+				pool.u2(operand);
+			return add(key);
+		}
+
+		private int add(String key) {
+			if (constantCount == MAXIMUM_CONSTANTS)
+				throw new TemplateEngineException("Template is too large to generate a renderer for");
+			int index = constantCount++;
+			constants.put(key, index);
+			return index;
+		}
+
+		private static String internalName(Class<?> type) {
+			return type.getName().replace('.', '/');
+		}
+
+		private static String descriptor(Class<?> type) {
+			return "L" + internalName(type) + ";";
+		}
+
+	}
+
+	/**
+	 * A byte buffer writing the big-endian values of the class file format.
+	 */
+	private static final class Bytes extends ByteArrayOutputStream {
+
+		private void u1(int value) {
+			write(value);
+		}
+
+		private void u2(int value) {
+			write(value >>> 8);
+			write(value);
+		}
+
+		private void u4(int value) {
+			u2(value >>> 16);
+			u2(value);
+		}
+
+		/**
+		 * Writes the specified string in the modified UTF-8 encoding of the class file format, preceded by its length.
+		 */
+		private void utf8(String value) {
+			int length = 0;
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				length += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+			}
+			if (length > 0xFFFF)
+				throw new TemplateEngineException("Template is too large to generate a renderer for");
+			u2(length);
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c != 0 && c < 0x80)
+					write(c);
+				else if (c < 0x800) {
+					write(0xC0 | c >> 6);
+					write(0x80 | c & 0x3F);
+				} else {
+					write(0xE0 | c >> 12);
+					write(0x80 | c >> 6 & 0x3F);
+					write(0x80 | c & 0x3F);
+				}
+			}
+		}
+
+		private void append(Bytes bytes) {
+			write(bytes.buf, 0, bytes.count);
+		}
+
+	}
+
+	private static final class GeneratedClassLoader extends ClassLoader {
+
+		private final String className;
+		private final byte[] bytes;
+
+		private GeneratedClassLoader(ClassLoader parent, String className, byte[] bytes) {
+			super(parent);
+			this.className = className;
+			this.bytes = bytes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			if (!name.equals(className))
+				throw new ClassNotFoundException(name);
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+}
@@ -0,0 +1,215 @@
+package com.kaba4cow.templateengine;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Generates the Java source of {@code TemplateRenderer} subclasses from compiled templates.
+ * <p>
+ * Every segment becomes a single statement: static text is appended from string literals, and placeholders call the
+ * support methods of {@code TemplateRenderer} with their slot index inlined. Long static text is split into several
+ * literals, and the statements are split into several methods, so that large templates stay within the limits of the
+ * class file format.
+ * </p>
+ * <p>
+ * Sources generated by {@link #generateSource(CompiledTemplate, String, String)} are meant to be compiled at build
+ * time, for example by the {@code template-engine-processor} annotation processor, so that templates are neither
+ * parsed nor validated at runtime.
+ * </p>
+ * <p>
+ * <b>Internal API.</b> This class is public only for the annotation processor, which runs in another package. The
+ * generated source calls support methods of {@code TemplateRenderer} that may change in any release, so it is only
+ * valid with the version of the library it was generated by.
+ * </p>
+ */
+public final class TemplateRendererGenerator {
+
+	static final int MAXIMUM_LITERAL_LENGTH = 8192;
+	static final int MAXIMUM_METHOD_STATEMENTS = 512;
+
+	private final Map<String, String> formats;
+	private final StringBuilder methods;
+	private int methodCount;
+	private int statementCount;
+
+	private TemplateRendererGenerator(TemplateSegment[] segments) {
+		this.formats = new LinkedHashMap<>();
+		this.methods = new StringBuilder();
+		this.methodCount = 0;
+		this.statementCount = 0;
+		Statements statements = new Statements();
+		for (TemplateSegment segment : segments)
+			segment.accept(statements);
+		if (statementCount > 0)
+			methods.append("\t}\n\n");
+	}
+
+	/**
+	 * Generates the source of a renderer class for the specified template, to be compiled at build time.
+	 * <p>
+	 * The generated class has a {@code public static final CompiledTemplate TEMPLATE} field, holding the template
+	 * rendered by the generated class. Creating it involves no parsing.
+	 * </p>
+	 * 
+	 * @param template    the template to generate a renderer for
+	 * @param packageName the package of the generated class
+	 * @param className   the simple name of the generated class
+	 * 
+	 * @return the source of the generated class
+	 * 
+	 * @throws NullPointerException if any of the arguments is {@code null}
+	 */
+	public static String generateSource(CompiledTemplate template, String packageName, String className) {
+		Objects.requireNonNull(packageName);
+		Objects.requireNonNull(className);
+		StringBuilder field = new StringBuilder();
+		field.append("\t/**\n\t * The precompiled template.\n\t */\n");
+		field.append("\tpublic static final CompiledTemplate TEMPLATE = precompiled(new ").append(className).append("(), ")
+				.append(text(template.template())).append(",\n\t\t\t").append(names(template.valueNames()))
+				.append(", ").append(names(template.listNames())).append(");\n\n");
+		field.append("\tprivate ").append(className).append("() {}\n\n");
+		return new TemplateRendererGenerator(template.segments()).source(packageName, className, field.toString());
+	}
+
+	private void statement(String statement) {
+		if (statementCount == MAXIMUM_METHOD_STATEMENTS) {
+			methods.append("\t}\n\n");
+			statementCount = 0;
+		}
+		if (statementCount == 0)
+			methods.append("\tprivate static void render").append(methodCount++).append(
+					"(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper) throws IOException {\n");
+		methods.append("\t\t").append(statement).append('\n');
+		statementCount++;
+	}
+
+	private String format(String specifier) {
+		String field = formats.get(specifier);
+		if (field == null) {
+			field = "FORMAT_" + formats.size();
+			formats.put(specifier, field);
+		}
+		return field;
+	}
+
+	private String source(String packageName, String className, String members) {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import java.io.IOException;\n\n");
+		if (!members.isEmpty())
+			source.append("import com.kaba4cow.templateengine.CompiledTemplate;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateBindings;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateListFormatter;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateRenderer;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateStringEscaper;\n");
+		if (!formats.isEmpty())
+			source.append("import com.kaba4cow.templateengine.TemplateValueFormat;\n");
+		source.append('\n');
+		source.append("/**\n * Generated template renderer. Do not edit.\n */\n");
+		source.append("public final class ").append(className).append(" extends TemplateRenderer {\n\n");
+		for (Map.Entry<String, String> format : formats.entrySet())
+			source.append("\tprivate static final TemplateValueFormat ").append(format.getValue()).append(" = valueFormat(")
+					.append(literal(format.getKey(), 0, format.getKey().length())).append(");\n");
+		if (!formats.isEmpty())
+			source.append('\n');
+		source.append(members);
+		source.append("\t@Override\n");
+		source.append("\tprotected void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper)"
+				+ " throws IOException {\n");
+		for (int method = 0; method < methodCount; method++)
+			source.append("\t\trender").append(method).append("(output, bindings, escaper);\n");
+		source.append("\t}\n\n");
+		source.append(methods);
+		source.append("}\n");
+		return source.toString();
+	}
+
+	/**
+	 * Writes the specified text as an expression, joining several literals if it is too long for a single one.
+	 */
+	private static String text(String text) {
+		if (text.length() <= MAXIMUM_LITERAL_LENGTH)
+			return literal(text, 0, text.length());
+		StringBuilder expression = new StringBuilder("String.join(\"\"");
+		for (int start = 0; start < text.length(); start += MAXIMUM_LITERAL_LENGTH)
+			expression.append(",\n\t\t\t\t")
+					.append(literal(text, start, Math.min(text.length(), start + MAXIMUM_LITERAL_LENGTH)));
+		return expression.append(')').toString();
+	}
+
+	private static String names(List<String> names) {
+		StringBuilder expression = new StringBuilder("new String[] {");
+		for (int i = 0; i < names.size(); i++)
+			expression.append(i == 0 ? " " : ", ").append(literal(names.get(i), 0, names.get(i).length()));
+		return expression.append(names.isEmpty() ? "}" : " }").toString();
+	}
+
+	/**
+	 * Quotes a range of the specified text as a Java string literal. Control characters are written as octal escapes,
+	 * since unicode escapes of line terminators would end the literal.
+	 */
+	private static String literal(String text, int start, int end) {
+		StringBuilder literal = new StringBuilder(end - start + 2).append('"');
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '"':
+				literal.append("\\\"");
+				break;
+			case '\\':
+				literal.append("\\\\");
+				break;
+			case '\n':
+				literal.append("\\n");
+				break;
+			case '\r':
+				literal.append("\\r");
+				break;
+			case '\t':
+				literal.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					literal.append(String.format("\\%03o", (int) c));
+				else if (c < 0x7F)
+					literal.append(c);
+				else
+					literal.append(String.format("\\u%04x", (int) c));
+			}
+		}
+		return literal.append('"').toString();
+	}
+
+	/**
+	 * Writes one statement per segment.
+	 */
+	private final class Statements implements TemplateSegment.Visitor {
+
+		@Override
+		public void literal(String text) {
+			for (int start = 0; start < text.length(); start += MAXIMUM_LITERAL_LENGTH)
+				statement("output.append("
+						+ TemplateRendererGenerator.literal(text, start,
+								Math.min(text.length(), start + MAXIMUM_LITERAL_LENGTH))
+						+ ");");
+		}
+
+		@Override
+		public void value(int slot, TemplateValueFormat format) {
+			if (format == null)
+				statement("appendValue(output, bindings, " + slot + ", escaper);");
+			else
+				statement("appendValue(output, bindings, " + slot + ", " + format(format.specifier()) + ", escaper);");
+		}
+
+		@Override
+		public void list(int slot, TemplateListFormatter formatter) {
+			statement("appendList(output, bindings, " + slot + ", TemplateListFormatter." + formatter.name()
+					+ ", escaper);");
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.kaba4cow.templateengine;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single pre-parsed piece of a {@code CompiledTemplate}.
+ * 
+ * @see CompiledTemplate
+ */
+abstract class TemplateSegment {
+
+	TemplateSegment() {}
+
+	/**
+	 * Appends this segment to the specified output.
+	 * 
+	 * @param output   the output to append to
+	 * @param bindings the values and lists bound to placeholders
+	 * @param escaper  the escaping strategy for placeholder values
+	 * 
+	 * @throws IOException             if the output cannot be written to
+	 * @throws TemplateEngineException if a placeholder is not provided
+	 */
+	abstract void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper) throws IOException;
+
+	/**
+	 * Gets the future this segment has to wait for before it can be rendered without blocking.
+	 * 
+	 * @param bindings the values and lists bound to placeholders
+	 * 
+	 * @return the future of the bound value or list, or {@code null} if this segment can be rendered right away
+	 */
+	CompletableFuture<?> pending(TemplateBindings bindings) {
+		return null;
+	}
+
+	/**
+	 * Passes this segment to the specified visitor.
+	 * 
+	 * @param visitor the visitor
+	 */
+	abstract void accept(Visitor visitor);
+
+	/**
+	 * Receives the segments of a template, in order, to generate the code of a renderer.
+	 */
+	interface Visitor {
+
+		void literal(String text);
+
+		void value(int slot, TemplateValueFormat format);
+
+		void list(int slot, TemplateListFormatter formatter);
+
+	}
+
+	/**
+	 * Static text copied to the output as is.
+	 */
+	static final class Literal extends TemplateSegment {
+
+		private final String text;
+
+		Literal(String text) {
+			this.text = text;
+		}
+
+		@Override
+		void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper) throws IOException {
+			output.append(text);
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.literal(text);
+		}
+
+		@Override
+		public String toString() {
+			return text;
+		}
+
+	}
+
+	/**
+	 * Value placeholder: <code>{{placeholder}}</code> or <code>{{placeholder:format}}</code>
+	 */
+	static final class ValuePlaceholder extends TemplateSegment {
+
+		private final String placeholder;
+		private final int slot;
+		private final TemplateValueFormat format;
+
+		ValuePlaceholder(String placeholder, int slot, TemplateValueFormat format) {
+			this.placeholder = placeholder;
+			this.slot = slot;
+			this.format = format;
+		}
+
+		@Override
+		void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper) throws IOException {
+			if (!bindings.hasValue(slot))
+				throw new TemplateEngineException("Value %s not provided", placeholder);
+			if (format == null)
+				TemplateAppender.appendValue(output, bindings, slot, escaper);
+			else
+				TemplateAppender.appendFormatted(output, bindings, slot, format, escaper);
+		}
+
+		@Override
+		CompletableFuture<?> pending(TemplateBindings bindings) {
+			return bindings.pendingValue(slot);
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.value(slot, format);
+		}
+
+		@Override
+		public String toString() {
+			if (format == null)
+				return String.format("{{%s}}", placeholder);
+			return String.format("{{%s:%s}}", placeholder, format);
+		}
+
+	}
+
+	/**
+	 * List placeholder: <code>[[listPlaceholder::formatter]]</code>
+	 */
+	static final class ListPlaceholder extends TemplateSegment {
+
+		private final String placeholder;
+		private final int slot;
+		private final TemplateListFormatter formatter;
+
+		ListPlaceholder(String placeholder, int slot, TemplateListFormatter formatter) {
+			this.placeholder = placeholder;
+			this.slot = slot;
+			this.formatter = formatter;
+		}
+
+		@Override
+		void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper) throws IOException {
+			if (!bindings.hasList(slot))
+				throw new TemplateEngineException("List %s not provided", placeholder);
+			Collection<?> list = bindings.list(slot);
+			if (list == null)
+				throw new TemplateEngineException("List %s not provided", placeholder);
+			formatter.formatTo(list, output, escaper);
+		}
+
+		@Override
+		CompletableFuture<?> pending(TemplateBindings bindings) {
+			return bindings.pendingList(slot);
+		}
+
+		@Override
+		void accept(Visitor visitor) {
+			visitor.list(slot, formatter);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("[[%s::%s]]", placeholder, formatter);
+		}
+
+	}
+
+}
@@ -1,7 +1,14 @@
 package com.kaba4cow.templateengine;
 
+import java.io.IOException;
+
 /**
  * Interface for escaping template strings.
+ * <p>
+ * Only {@link #escape(String)} has to be implemented. Escapers on a hot path should also override
+ * {@link #needsEscaping(CharSequence, int, int)} and {@link #escape(CharSequence, int, int, Appendable)} to write
+ * escaped characters straight into the rendered output and to skip input that needs no escaping.
+ * </p>
  */
 public interface TemplateStringEscaper {
 
@@ -14,4 +21,43 @@ public interface TemplateStringEscaper {
 	 */
 	public String escape(String string);
 
+	/**
+	 * Checks whether the specified range of characters contains anything this escaper would change.
+	 * <p>
+	 * The default implementation conservatively returns {@code true}.
+	 * </p>
+	 * 
+	 * @param source the characters to check
+	 * @param start  the index of the first character to check
+	 * @param end    the index after the last character to check
+	 * 
+	 * @return {@code false} if escaping the range would leave it unchanged
+	 */
+	public default boolean needsEscaping(CharSequence source, int start, int end) {
+		return true;
+	}
+
+	/**
+	 * Escapes the specified range of characters, appending the result to the output.
+	 * <p>
+	 * The default implementation appends the range as is if {@link #needsEscaping(CharSequence, int, int)} returns
+	 * {@code false}, and otherwise appends the result of {@link #escape(String)}.
+	 * </p>
+	 * 
+	 * @param source the characters to escape
+	 * @param start  the index of the first character to escape
+	 * @param end    the index after the last character to escape
+	 * @param output the output to append to
+	 * 
+	 * @throws IOException if the output cannot be written to
+	 */
+	public default void escape(CharSequence source, int start, int end, Appendable output) throws IOException {
+		if (!needsEscaping(source, start, end))
+			output.append(source, start, end);
+		else if (source instanceof String && start == 0 && end == source.length())
+			output.append(escape((String) source));
+		else
+			output.append(escape(source.subSequence(start, end).toString()));
+	}
+
 }
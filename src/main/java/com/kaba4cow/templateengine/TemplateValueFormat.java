@@ -0,0 +1,163 @@
+package com.kaba4cow.templateengine;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.IllegalFormatException;
+
+/**
+ * A format specifier of a value placeholder, compiled once when the template is parsed.
+ * <p>
+ * Specifiers starting with {@code %} use {@code java.util.Formatter} syntax, for example
+ * <code>{{amount:%.2f}}</code>. Specifiers starting with {@code date:} are followed by a {@code DateTimeFormatter}
+ * pattern, for example <code>{{created:date:yyyy-MM-dd}}</code>, applied to temporal values, {@code Instant}s and
+ * {@code Date}s in the system time zone. There are no other specifiers, so a colon followed by anything else is part of
+ * the placeholder name.
+ * </p>
+ * <p>
+ * <b>Internal API.</b> This class is not meant to be used by applications, and may change or move in any release.
+ * Formats are created by the template engine only; the class is public so that generated {@code TemplateRenderer}s,
+ * which live in other packages, can hold them in static fields.
+ * </p>
+ */
+public abstract class TemplateValueFormat {
+
+	static final String PRINTF_PREFIX = "%";
+	static final String TEMPORAL_PREFIX = "date:";
+
+	private final String specifier;
+
+	private TemplateValueFormat(String specifier) {
+		this.specifier = specifier;
+	}
+
+	/**
+	 * Compiles the specified format specifier.
+	 * 
+	 * @param specifier the format specifier
+	 * 
+	 * @return the compiled format
+	 * 
+	 * @throws IllegalArgumentException if the specifier is invalid
+	 */
+	static TemplateValueFormat forSpecifier(String specifier) {
+		if (specifier.startsWith(PRINTF_PREFIX))
+			return new Printf(specifier);
+		else if (specifier.startsWith(TEMPORAL_PREFIX))
+			return new Temporal(specifier);
+		throw new IllegalArgumentException(
+				String.format("Format does not start with %s or %s", PRINTF_PREFIX, TEMPORAL_PREFIX));
+	}
+
+	/**
+	 * Checks whether a format specifier starts at the specified index of the specified placeholder.
+	 * 
+	 * @param placeholder the placeholder
+	 * @param index       the index
+	 * 
+	 * @return {@code true} if the text at the index starts with {@code %} or {@code date:}
+	 */
+	static boolean startsSpecifier(String placeholder, int index) {
+		return placeholder.startsWith(PRINTF_PREFIX, index) || placeholder.startsWith(TEMPORAL_PREFIX, index);
+	}
+
+	/**
+	 * Appends the specified value, formatted.
+	 * 
+	 * @param builder     the builder to append to
+	 * @param placeholder the name of the placeholder holding the value, reported instead of the value if it cannot be
+	 *                    formatted
+	 * @param value       the value to format
+	 * 
+	 * @throws TemplateEngineException if the value cannot be formatted with this format
+	 */
+	abstract void formatTo(StringBuilder builder, String placeholder, Object value);
+
+	String specifier() {
+		return specifier;
+	}
+
+	@Override
+	public String toString() {
+		return specifier;
+	}
+
+	private static final class Printf extends TemplateValueFormat {
+
+		private final TemplateFormat format;
+
+		private Printf(String specifier) {
+			super(specifier);
+			this.format = TemplateFormat.forPattern(specifier);
+		}
+
+		@Override
+		void formatTo(StringBuilder builder, String placeholder, Object value) {
+			try {
+				format.formatTo(builder, new Object[] { value });
+			} catch (IllegalFormatException exception) {
+				throw new TemplateEngineException(exception, "Value %s cannot be formatted with %s: %s", placeholder,
+						specifier(), exception.getMessage());
+			}
+		}
+
+	}
+
+	private static final class Temporal extends TemplateValueFormat {
+
+		private final DateTimeFormatter formatter;
+
+		private Temporal(String specifier) {
+			super(specifier);
+			String pattern = specifier.substring(TEMPORAL_PREFIX.length());
+			if (!hasField(pattern))
+				throw new IllegalArgumentException(String.format("Date pattern %s has no date or time fields", pattern));
+			this.formatter = DateTimeFormatter.ofPattern(pattern);
+		}
+
+		/**
+		 * Checks whether the specified pattern has an unquoted pattern letter, since a pattern without one, such as
+		 * {@code 0.00}, formats no part of the value.
+		 */
+		private static boolean hasField(String pattern) {
+			boolean quoted = false;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				if (c == '\'')
+					quoted = !quoted;
+				else if (!quoted && (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z'))
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		void formatTo(StringBuilder builder, String placeholder, Object value) {
+			if (value == null) {
+				builder.append((Object) null);
+				return;
+			}
+			TemporalAccessor temporal;
+			if (value instanceof Date)
+				temporal = ((Date) value).toInstant().atZone(ZoneId.systemDefault());
+			else if (value instanceof Instant)
+				temporal = ((Instant) value).atZone(ZoneId.systemDefault());
+			else if (value instanceof TemporalAccessor)
+				temporal = (TemporalAccessor) value;
+			else
+				throw new TemplateEngineException("Value %s cannot be formatted with %s: %s is not a date or time",
+						placeholder, specifier(), value.getClass().getName());
+			try {
+				formatter.formatTo(temporal, builder);
+			} catch (DateTimeException exception) {
+				throw new TemplateEngineException(exception, "Value %s cannot be formatted with %s: %s", placeholder,
+						specifier(), exception.getMessage());
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.kaba4cow.templateengine;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Watches a template directory and its subdirectories on a background thread, reloading changed templates of a
+ * {@code TemplateRegistry}. Errors are reported to the registry, and watching continues after them.
+ * 
+ * @see TemplateRegistry#watch()
+ */
+final class TemplateWatcher implements Runnable {
+
+	private final TemplateRegistry registry;
+	private final WatchService watchService;
+	private final Thread thread;
+
+	TemplateWatcher(TemplateRegistry registry, Path directory) throws IOException {
+		this.registry = registry;
+		this.watchService = directory.getFileSystem().newWatchService();
+		this.thread = new Thread(this, String.format("TemplateWatcher [%s]", directory));
+		this.thread.setDaemon(true);
+		register(directory);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	void close() {
+		thread.interrupt();
+		try {
+			watchService.close();
+		} catch (IOException exception) {
+			registry.watchFailed(exception);
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.take();
+				Path directory = (Path) key.watchable();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					try {
+						handle(directory, event);
+					} catch (ClosedWatchServiceException exception) {
+						throw exception;
+					} catch (IOException | RuntimeException exception) {
+						registry.watchFailed(exception);
+					}
+				}
+				key.reset();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException exception) {
+			return;
+		}
+	}
+
+	private void handle(Path directory, WatchEvent<?> event) throws IOException {
+		if (event.kind() == OVERFLOW) {
+			registry.reloadAll();
+			return;
+		}
+		Path path = directory.resolve((Path) event.context());
+		if (event.kind() == ENTRY_DELETE)
+			registry.reload(path);
+		else if (Files.isDirectory(path))
+			register(path);
+		else
+			registry.reload(path);
+	}
+
+	private void register(Path root) throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+					throws IOException {
+				directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+	}
+
+}
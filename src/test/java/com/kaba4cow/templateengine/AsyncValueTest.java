@@ -0,0 +1,95 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncValueTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void createExecutor() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	void shutDownExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void rendersOnceFuturesComplete() throws Exception {
+		CompletableFuture<String> name = new CompletableFuture<>();
+		CompletableFuture<List<String>> items = new CompletableFuture<>();
+		CompletableFuture<String> result = TemplateBuilder.forString("{{name}}: [[items::INLINE]]")
+				.value("name", name)
+				.list("items", items)
+				.executor(executor)
+				.buildAsync();
+		name.complete("Ann");
+		items.complete(Arrays.asList("a", "b"));
+		assertEquals("Ann: a, b", result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void resolvesBindingsConcurrently() throws Exception {
+		CountDownLatch started = new CountDownLatch(2);
+		Supplier<String> first = () -> awaitBoth(started, "a");
+		Supplier<String> second = () -> awaitBoth(started, "b");
+		CompletableFuture<String> result = TemplateBuilder.forString("{{first}}{{second}}")
+				.value("first", first)
+				.value("second", second)
+				.executor(executor)
+				.buildAsync();
+		assertEquals("ab", result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void failsWithFailedBindings() {
+		CompletableFuture<String> name = new CompletableFuture<>();
+		name.completeExceptionally(new IllegalStateException("backend down"));
+		CompletableFuture<String> result = TemplateBuilder.forString("{{name}}")
+				.value("name", name)
+				.executor(executor)
+				.buildAsync();
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+		assertTrue(String.valueOf(exception.getCause()).contains("backend down"), String.valueOf(exception.getCause()));
+	}
+
+	@Test
+	void waitsForFuturesWhenRenderedSynchronously() {
+		CompletableFuture<String> name = CompletableFuture.supplyAsync(() -> "Ann", executor);
+		assertEquals("Hi Ann", TemplateBuilder.forString("Hi {{name}}").value("name", name).build());
+	}
+
+	/**
+	 * Blocks until both bindings have started, which only happens if they are resolved concurrently.
+	 */
+	private static String awaitBoth(CountDownLatch started, String value) {
+		started.countDown();
+		try {
+			if (!started.await(5, TimeUnit.SECONDS))
+				throw new IllegalStateException("Bindings were not resolved concurrently");
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(exception);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class BeanBindingTest {
+
+	@Test
+	void bindsGettersAndPublicFields() {
+		String result = TemplateBuilder.forString("{{name}} {{active}} {{count}} {{URL}} [[items::INLINE]]")
+				.bind(new Bean())
+				.build();
+		assertEquals("Ann true 3 http://a b, c", result);
+	}
+
+	@Test
+	void prefersGettersToFields() {
+		CompiledTemplate template = CompiledTemplate.compile("{{shadowed}}");
+		TemplateBindings bindings = template.newBindings().bind(new Bean());
+		assertEquals("getter", template.render(bindings, new DefaultTemplateStringEscaper()));
+	}
+
+	@Test
+	void doesNotInvokeOtherMethods() {
+		Bean bean = new Bean();
+		CompiledTemplate template = CompiledTemplate.compile("{{reset}} {{toString}} {{hashCode}}");
+		TemplateBindings bindings = template.newBindings().bind(bean);
+		assertFalse(bean.reset);
+		for (int slot = 0; slot < template.valueNames().size(); slot++)
+			assertFalse(bindings.hasValue(slot), template.valueNames().get(slot));
+	}
+
+	@Test
+	void doesNotDeleteBoundFiles() throws IOException {
+		File file = File.createTempFile("template", ".txt");
+		try {
+			CompiledTemplate template = CompiledTemplate.compile("{{delete}} {{name}}");
+			TemplateBindings bindings = template.newBindings().bind(file);
+			assertTrue(file.exists());
+			assertFalse(bindings.hasValue(template.valueSlot("delete")));
+			assertTrue(bindings.hasValue(template.valueSlot("name")));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	void bindsMapEntriesByKey() {
+		Map<String, Object> source = new HashMap<>();
+		source.put("name", "Ann");
+		source.put("greeting", (Supplier<String>) () -> "Hi");
+		source.put("items", Arrays.asList("a", "b"));
+		source.put("size", "not the map size");
+		String result = TemplateBuilder.forString("{{greeting}} {{name}}, {{size}}: [[items::INLINE]]")
+				.bind(source)
+				.build();
+		assertEquals("Hi Ann, not the map size: a, b", result);
+	}
+
+	@Test
+	void rejectsMapEntriesThatAreNotLists() {
+		CompiledTemplate template = CompiledTemplate.compile("[[items::INLINE]]");
+		assertThrows(TemplateEngineException.class,
+				() -> template.newBindings().bind(Collections.singletonMap("items", "a")));
+	}
+
+	@Test
+	void rejectsMapBinders() {
+		CompiledTemplate template = CompiledTemplate.compile("{{name}}");
+		assertThrows(IllegalArgumentException.class, () -> template.binder(HashMap.class));
+	}
+
+	@Test
+	void rejectsListPropertiesThatAreNotLists() {
+		CompiledTemplate template = CompiledTemplate.compile("[[name::INLINE]]");
+		assertThrows(TemplateEngineException.class, () -> template.binder(Bean.class));
+	}
+
+	@Test
+	void cachesBindersPerClass() {
+		CompiledTemplate template = CompiledTemplate.compile("{{name}}");
+		assertSame(template.binder(Bean.class), template.binder(Bean.class));
+	}
+
+	@Test
+	void bindingDoesNotKeepTemplatesInMemory() throws InterruptedException {
+		WeakReference<CompiledTemplate> reference = bindDiscardedTemplate();
+		for (int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(reference.get());
+	}
+
+	private static WeakReference<CompiledTemplate> bindDiscardedTemplate() {
+		CompiledTemplate template = CompiledTemplate.compile("Hello {{name}}");
+		assertEquals("Hello Ann", template.render(template.newBindings().bind(new Bean())));
+		return new WeakReference<>(template);
+	}
+
+	public static class Bean {
+
+		public final int count = 3;
+		public final String shadowed = "field";
+		private boolean reset;
+
+		public String getName() {
+			return "Ann";
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public String getURL() {
+			return "http://a";
+		}
+
+		public String getShadowed() {
+			return "getter";
+		}
+
+		public List<String> getItems() {
+			return Arrays.asList("b", "c");
+		}
+
+		public String reset() {
+			reset = true;
+			return "reset";
+		}
+
+	}
+
+}
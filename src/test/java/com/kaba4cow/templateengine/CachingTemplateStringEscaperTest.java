@@ -0,0 +1,160 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class CachingTemplateStringEscaperTest {
+
+	@Test
+	void cachesEscapedStrings() {
+		CountingEscaper counting = new CountingEscaper();
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(counting);
+		String escaped = escaper.escape("<b>");
+		assertEquals("&lt;b&gt;", escaped);
+		assertSame(escaped, escaper.escape("<b>"));
+		assertEquals(1, counting.escapes.get());
+		assertEquals(1L, escaper.hitCount());
+		assertEquals(1L, escaper.missCount());
+		assertEquals(0.5, escaper.hitRate());
+		assertEquals(1, escaper.size());
+		escaper.clear();
+		assertEquals(0, escaper.size());
+	}
+
+	@Test
+	void doesNotCacheLongOrPlainStrings() {
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, 16,
+				4);
+		assertEquals("&lt;long&gt;", escaper.escape("<long>"));
+		assertEquals("plain", escaper.escape("plain"));
+		assertEquals(0, escaper.size());
+		assertEquals(0L, escaper.hitCount() + escaper.missCount());
+		assertEquals(1.0, escaper.hitRate());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedStrings() {
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, 2,
+				16);
+		escaper.escape("<1>");
+		escaper.escape("<2>");
+		escaper.escape("<1>");
+		escaper.escape("<3>");
+		assertEquals(2, escaper.size());
+		assertEquals(1L, escaper.hitCount());
+		escaper.escape("<1>");
+		assertEquals(2L, escaper.hitCount());
+		escaper.escape("<2>");
+		assertEquals(2L, escaper.hitCount());
+		assertEquals(4L, escaper.missCount());
+	}
+
+	@Test
+	void boundsEachSegmentOnItsOwn() {
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, 64,
+				16);
+		int first = 0;
+		for (int i = 0; first < 100; i++) {
+			String string = "<" + i + ">";
+			if (segment(string, 2) == 0) {
+				escaper.escape(string);
+				first++;
+			}
+		}
+		assertEquals(32, escaper.size());
+		for (int i = 0; i < 1_000; i++)
+			escaper.escape("<" + i + ">");
+		assertEquals(64, escaper.size());
+	}
+
+	@Test
+	void cachesRangesOfCharacterSequences() throws IOException {
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML);
+		StringBuilder output = new StringBuilder();
+		escaper.escape(new StringBuilder("x<b>y"), 1, 4, output);
+		escaper.escape("<b>", 0, 3, output);
+		escaper.escape("x y", 0, 3, output);
+		assertEquals("&lt;b&gt;&lt;b&gt;x y", output.toString());
+		assertEquals(1L, escaper.hitCount());
+		assertEquals(1, escaper.size());
+	}
+
+	@Test
+	void escapesConsistentlyFromSeveralThreads() throws Exception {
+		CachingTemplateStringEscaper escaper = new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, 64,
+				32);
+		int threads = 8;
+		int iterations = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				int seed = thread;
+				Callable<Integer> task = () -> {
+					int mismatches = 0;
+					for (int i = 0; i < iterations; i++) {
+						String string = "<" + (i * 31 + seed) % 500 + " & '" + seed % 2 + "'>";
+						if (!StandardTemplateStringEscaper.HTML.escape(string).equals(escaper.escape(string)))
+							mismatches++;
+					}
+					return mismatches;
+				};
+				futures.add(executor.submit(task));
+			}
+			for (Future<Integer> future : futures)
+				assertEquals(0, future.get().intValue());
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals((long) threads * iterations, escaper.hitCount() + escaper.missCount());
+		assertTrue(escaper.size() <= 64);
+	}
+
+	@Test
+	void rejectsNegativeLimits() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, -1, 16));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CachingTemplateStringEscaper(StandardTemplateStringEscaper.HTML, 16, -1));
+		assertThrows(NullPointerException.class, () -> new CachingTemplateStringEscaper(null));
+	}
+
+	/**
+	 * Gets the segment a string is cached in, the way {@code CachingTemplateStringEscaper} selects it.
+	 */
+	private static int segment(String string, int segments) {
+		int hash = string.hashCode();
+		return (hash ^ hash >>> 16) & (segments - 1);
+	}
+
+	private static final class CountingEscaper implements TemplateStringEscaper {
+
+		private final AtomicInteger escapes = new AtomicInteger();
+
+		@Override
+		public String escape(String string) {
+			escapes.incrementAndGet();
+			return StandardTemplateStringEscaper.HTML.escape(string);
+		}
+
+		@Override
+		public boolean needsEscaping(CharSequence source, int start, int end) {
+			return StandardTemplateStringEscaper.HTML.needsEscaping(source, start, end);
+		}
+
+	}
+
+}
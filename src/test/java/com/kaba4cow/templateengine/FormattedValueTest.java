@@ -0,0 +1,55 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.IllegalFormatException;
+
+import org.junit.jupiter.api.Test;
+
+class FormattedValueTest {
+
+	@Test
+	void formatsWhenRendered() {
+		String result = TemplateBuilder.forString("Balance: {{balance}}")
+				.value("balance", "%.2f %s", 42.5, "USD")
+				.build();
+		assertEquals("Balance: 42.50 USD", result);
+	}
+
+	@Test
+	void reportsMismatchedArgumentsWithThePlaceholder() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{n}}").value("n", "%d", "x");
+		TemplateEngineException exception = assertThrows(TemplateEngineException.class, builder::build);
+		assertTrue(exception.getMessage().contains("n"), exception.getMessage());
+		assertTrue(exception.getCause() instanceof IllegalFormatException);
+	}
+
+	@Test
+	void reportsMissingArguments() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{n}}").value("n", "%s and %s", "x");
+		assertThrows(TemplateEngineException.class, builder::build);
+	}
+
+	@Test
+	void formatsNullArgumentsLikeStringFormat() {
+		String result = TemplateBuilder.forString("{{n}}").value("n", "%s-%s", (Object[]) null).build();
+		assertEquals(String.format("%s-%s", (Object[]) null), result);
+	}
+
+	@Test
+	void copiesArguments() {
+		Object[] args = { "a" };
+		TemplateBuilder builder = TemplateBuilder.forString("{{n}}").value("n", "%s", args);
+		args[0] = "b";
+		assertEquals("a", builder.build());
+	}
+
+	@Test
+	void rejectsInvalidFormatsWhenBound() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{n}}");
+		assertThrows(IllegalFormatException.class, () -> builder.value("n", "%q", 1));
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class GeneratedTemplateTest {
+
+	@Test
+	void rendersLikeParsedTemplates() {
+		String template = "Hi {{name}} é€\0😀 {{name}}\n{{amount:%.2f}} {{amount:%.2f}} {{day:date:yyyy-MM-dd}}"
+				+ " [[items::INLINE]] [[items::BULLETED]] {{a:b}}";
+		CompiledTemplate generated = CompiledTemplate.compileGenerated(template);
+		assertTrue(generated.isGenerated());
+		assertEquals(render(CompiledTemplate.compile(template)), render(generated));
+	}
+
+	@Test
+	void rendersLargeTemplates() {
+		StringBuilder template = new StringBuilder();
+		for (int i = 0; i < 2_000; i++)
+			template.append("line ").append(i).append(" {{v").append(i % 700).append("}} [[items::INLINE]]\n");
+		template.append(String.join("", Collections.nCopies(30_000, "éx")));
+		CompiledTemplate generated = CompiledTemplate.compileGenerated(template.toString());
+		CompiledTemplate parsed = CompiledTemplate.compile(template.toString());
+		TemplateBindings generatedBindings = generated.newBindings().list("items", Arrays.asList(1, 2));
+		TemplateBindings parsedBindings = parsed.newBindings().list("items", Arrays.asList(1, 2));
+		for (int slot = 0; slot < generated.valueNames().size(); slot++) {
+			generatedBindings.value(slot, slot);
+			parsedBindings.value(slot, slot);
+		}
+		TemplateStringEscaper escaper = new DefaultTemplateStringEscaper();
+		assertEquals(parsed.render(parsedBindings, escaper), generated.render(generatedBindings, escaper));
+	}
+
+	@Test
+	void inlinesLargeSlotIndices() {
+		StringBuilder template = new StringBuilder();
+		for (int i = 0; i < 33_000; i++)
+			template.append("{{v").append(i).append("}}");
+		CompiledTemplate generated = CompiledTemplate.compileGenerated(template.toString());
+		TemplateBindings bindings = generated.newBindings();
+		for (int slot = 0; slot < generated.valueNames().size(); slot++)
+			bindings.value(slot, slot % 10);
+		String result = generated.render(bindings, new DefaultTemplateStringEscaper());
+		assertEquals('0', result.charAt(0));
+		assertEquals('9', result.charAt(result.length() - 1));
+	}
+
+	@Test
+	void fallsBackToParsedRenderingWhenTooLarge() {
+		StringBuilder template = new StringBuilder();
+		for (int i = 0; i < 40_000; i++)
+			template.append("text ").append(i).append(" {{v}}");
+		CompiledTemplate generated = CompiledTemplate.compileGenerated(template.toString());
+		assertFalse(generated.isGenerated());
+		assertEquals(TemplateBuilder.forString(template.toString()).value("v", 1).build(),
+				TemplateBuilder.forTemplate(generated).value("v", 1).build());
+	}
+
+	@Test
+	void reportsMissingValues() {
+		CompiledTemplate generated = CompiledTemplate.compileGenerated("{{name}}");
+		assertThrows(TemplateEngineException.class, () -> TemplateBuilder.forTemplate(generated).build());
+	}
+
+	private static String render(CompiledTemplate template) {
+		return TemplateBuilder.forTemplate(template)
+				.value("name", "<Ann>")
+				.value("amount", 42.5)
+				.value("day", LocalDate.of(2024, 3, 1))
+				.value("a:b", "c")
+				.list("items", Arrays.asList("x", "y"))
+				.escaper(StandardTemplateStringEscaper.HTML)
+				.build();
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class LazyValueTest {
+
+	@Test
+	void suppliesValuesOncePerRender() {
+		AtomicInteger calls = new AtomicInteger();
+		TemplateBuilder builder = TemplateBuilder.forString("{{name}} and {{name}}")
+				.value("name", (Supplier<String>) () -> "Ann" + calls.incrementAndGet());
+		assertEquals("Ann1 and Ann1", builder.build());
+		assertEquals("Ann2 and Ann2", builder.build());
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void suppliesListsOncePerRender() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<Collection<?>> items = () -> {
+			calls.incrementAndGet();
+			return Arrays.asList("a", "b");
+		};
+		String result = TemplateBuilder.forString("[[items::INLINE]] / [[items::INLINE]]").list("items", items).build();
+		assertEquals("a, b / a, b", result);
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void doesNotSupplyPlaceholdersMissingFromTheTemplate() {
+		AtomicInteger calls = new AtomicInteger();
+		String result = TemplateBuilder.forString("Hello {{name}}")
+				.value("name", "Ann")
+				.value("summary", (Supplier<String>) () -> "x" + calls.incrementAndGet())
+				.list("items", () -> Arrays.asList(calls.incrementAndGet()))
+				.build();
+		assertEquals("Hello Ann", result);
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	void suppliesValuesOfGeneratedTemplates() {
+		AtomicInteger calls = new AtomicInteger();
+		CompiledTemplate template = CompiledTemplate.compileGenerated("{{name}}{{name}}");
+		String result = TemplateBuilder.forTemplate(template)
+				.value("name", (Supplier<Integer>) calls::incrementAndGet)
+				.build();
+		assertEquals("11", result);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class PrecompiledTemplateIndexTest {
+
+	private static final String RESOURCE_NAME = "templates/precompiled-greeting.txt";
+
+	@Test
+	void findsIndexedTemplates() {
+		CompiledTemplate template = PrecompiledTemplateIndex.find(RESOURCE_NAME);
+		assertSame(GreetingTemplate.TEMPLATE, template);
+		assertSame(template, PrecompiledTemplateIndex.find(RESOURCE_NAME));
+		assertTrue(template.isGenerated());
+	}
+
+	@Test
+	void ignoresResourcesThatAreNotIndexed() {
+		assertNull(PrecompiledTemplateIndex.find("templates/missing.txt"));
+	}
+
+	@Test
+	void rendersIndexedTemplatesWithoutReadingTheResource() {
+		assertEquals("Hello Ann!", TemplateBuilder.forResource(RESOURCE_NAME).value("name", "Ann").build());
+	}
+
+	/**
+	 * A renderer like the ones generated by the annotation processor.
+	 */
+	public static final class GreetingTemplate extends TemplateRenderer {
+
+		public static final CompiledTemplate TEMPLATE = precompiled(new GreetingTemplate(), "Hello {{name}}!",
+				new String[] { "name" }, new String[] {});
+
+		private GreetingTemplate() {}
+
+		@Override
+		protected void render(Appendable output, TemplateBindings bindings, TemplateStringEscaper escaper)
+				throws IOException {
+			output.append("Hello ");
+			appendValue(output, bindings, 0, escaper);
+			output.append("!");
+		}
+
+	}
+
+}
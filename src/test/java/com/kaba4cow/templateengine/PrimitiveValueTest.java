@@ -0,0 +1,77 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PrimitiveValueTest {
+
+	private static final String TEMPLATE = "{{i}} {{l}} {{d}} {{f}} {{b}} {{c}}";
+
+	@Test
+	void rendersEveryPrimitiveOverloadLikeStringValueOf() {
+		String result = TemplateBuilder.forString(TEMPLATE)
+				.value("i", -7)
+				.value("l", Long.MAX_VALUE)
+				.value("d", 0.1)
+				.value("f", 0.1f)
+				.value("b", true)
+				.value("c", 'x')
+				.build();
+		assertEquals("-7 9223372036854775807 0.1 0.1 true x", result);
+	}
+
+	@Test
+	void rendersPrimitivesBoundBySlot() {
+		CompiledTemplate template = CompiledTemplate.compile(TEMPLATE);
+		TemplateBindings bindings = template.newBindings()
+				.value(template.valueSlot("i"), Long.MIN_VALUE)
+				.value(template.valueSlot("l"), 0L)
+				.value(template.valueSlot("d"), 1.0E-10)
+				.value(template.valueSlot("f"), 1.0E-10f)
+				.value(template.valueSlot("b"), false)
+				.value(template.valueSlot("c"), 'é');
+		assertEquals("-9223372036854775808 0 1.0E-10 1.0E-10 false é", template.render(bindings));
+	}
+
+	@Test
+	void rendersFloatsWithoutWideningThem() {
+		float[] values = { 0.1f, 1.1f, -0.0f, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN, Float.NEGATIVE_INFINITY };
+		for (float value : values)
+			assertEquals(Float.toString(value), TemplateBuilder.forString("{{f}}").value("f", value).build());
+	}
+
+	@Test
+	void formatsPrimitivesAsTheirWrappers() {
+		String result = TemplateBuilder.forString("{{f:%.3f}} {{f:%s}} {{i:%05d}} {{c:%c}} {{b:%b}}")
+				.value("f", 0.1f)
+				.value("i", 42)
+				.value("c", 'y')
+				.value("b", true)
+				.build();
+		assertEquals("0.100 0.1 00042 y true", result);
+	}
+
+	@Test
+	void bindsPrimitivePropertiesWithoutWideningFloats() {
+		String result = TemplateBuilder.forString("{{ratio}} {{count}} {{small}}").bind(new Measurement()).build();
+		assertEquals("0.1 3 -2", result);
+	}
+
+	public static class Measurement {
+
+		public float getRatio() {
+			return 0.1f;
+		}
+
+		public int getCount() {
+			return 3;
+		}
+
+		public byte getSmall() {
+			return -2;
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class StandardTemplateStringEscaperTest {
+
+	@Test
+	void escapesHtml() {
+		assertEquals("&lt;a href=&quot;x&quot;&gt;Tom &amp; Jerry&#39;s&lt;/a&gt;",
+				StandardTemplateStringEscaper.HTML.escape("<a href=\"x\">Tom & Jerry's</a>"));
+		assertEquals("line\nbreak", StandardTemplateStringEscaper.HTML.escape("line\nbreak"));
+	}
+
+	@Test
+	void escapesXmlAttributes() {
+		assertEquals("&lt;&amp;&gt;&quot;&apos;&#9;&#10;&#13;",
+				StandardTemplateStringEscaper.XML_ATTRIBUTE.escape("<&>\"'\t\n\r"));
+	}
+
+	@Test
+	void escapesJsonControlCharacters() {
+		assertEquals("\\\"quoted\\\" \\\\ \\b\\t\\n\\f\\r\\u0000\\u001f \u007f é",
+				StandardTemplateStringEscaper.JSON.escape("\"quoted\" \\ \b\t\n\f\r\u0000\u001f \u007f é"));
+		assertEquals("</script>", StandardTemplateStringEscaper.JSON.escape("</script>"));
+	}
+
+	@Test
+	void quotesCsvFieldsOnlyWhenNeeded() {
+		assertEquals("plain field", StandardTemplateStringEscaper.CSV.escape("plain field"));
+		assertEquals("\"a,b\"", StandardTemplateStringEscaper.CSV.escape("a,b"));
+		assertEquals("\"say \"\"hi\"\"\"", StandardTemplateStringEscaper.CSV.escape("say \"hi\""));
+		assertEquals("\"two\nlines\"", StandardTemplateStringEscaper.CSV.escape("two\nlines"));
+		assertEquals("\"cr\r\"", StandardTemplateStringEscaper.CSV.escape("cr\r"));
+		assertEquals("", StandardTemplateStringEscaper.CSV.escape(""));
+	}
+
+	@Test
+	void percentEncodesUrlsAsUtf8() {
+		assertEquals("AZaz09-._~", StandardTemplateStringEscaper.URL.escape("AZaz09-._~"));
+		assertEquals("a%20b%2Fc%3Fd%3De%26f%25%2B", StandardTemplateStringEscaper.URL.escape("a b/c?d=e&f%+"));
+		assertEquals("%C3%A9%E2%82%AC%DF%BF", StandardTemplateStringEscaper.URL.escape("é€\u07ff"));
+		assertEquals("%F0%9F%98%80", StandardTemplateStringEscaper.URL.escape("\ud83d\ude00"));
+	}
+
+	@Test
+	void replacesLoneSurrogatesInUrls() {
+		assertEquals("%EF%BF%BDx", StandardTemplateStringEscaper.URL.escape("\ud83dx"));
+		assertEquals("x%EF%BF%BD", StandardTemplateStringEscaper.URL.escape("x\ude00"));
+		assertEquals("%EF%BF%BD", StandardTemplateStringEscaper.URL.escape("\ud83d"));
+		assertEquals("%EF%BF%BD%EF%BF%BD", StandardTemplateStringEscaper.URL.escape("\ude00\ud83d"));
+	}
+
+	@Test
+	void returnsStringsThatNeedNoEscapingAsIs() {
+		String string = "plain";
+		for (StandardTemplateStringEscaper escaper : StandardTemplateStringEscaper.values())
+			assertSame(string, escaper.escape(string), escaper.name());
+	}
+
+	@Test
+	void escapesRangesLikeStrings() throws IOException {
+		Random random = new Random(42L);
+		char[] alphabet = "ab <>&\"'\\,\t\n\r\u0001é€\ud83d\ude00/%".toCharArray();
+		for (int run = 0; run < 2_000; run++) {
+			char[] chars = new char[random.nextInt(12)];
+			for (int i = 0; i < chars.length; i++)
+				chars[i] = alphabet[random.nextInt(alphabet.length)];
+			String string = new String(chars);
+			int start = random.nextInt(string.length() + 1);
+			int end = start + random.nextInt(string.length() - start + 1);
+			String range = string.substring(start, end);
+			for (StandardTemplateStringEscaper escaper : StandardTemplateStringEscaper.values()) {
+				String escaped = escaper.escape(range);
+				StringBuilder output = new StringBuilder();
+				escaper.escape(new StringBuilder(string), start, end, output);
+				assertEquals(escaped, output.toString(), escaper.name());
+				assertEquals(!escaped.equals(range), escaper.needsEscaping(string, start, end), escaper.name());
+			}
+		}
+	}
+
+}
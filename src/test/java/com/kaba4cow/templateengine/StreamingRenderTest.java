@@ -0,0 +1,110 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class StreamingRenderTest {
+
+	private static final Executor DIRECT = Runnable::run;
+	private static final Executor REJECTING = command -> {
+		throw new RejectedExecutionException("rejected");
+	};
+
+	@Test
+	void streamsUpToTheFirstPendingPlaceholder() throws Exception {
+		CompletableFuture<String> first = new CompletableFuture<>();
+		CompletableFuture<String> second = new CompletableFuture<>();
+		FlushCountingWriter output = new FlushCountingWriter();
+		CompletableFuture<Void> render = TemplateBuilder.forString("<head>{{first}}<body>{{second}}</body>")
+				.value("first", first)
+				.value("second", second)
+				.executor(DIRECT)
+				.renderToAsync(output);
+		assertEquals("<head>", output.toString());
+		assertEquals(1, output.flushes);
+		second.complete("B");
+		assertEquals("<head>", output.toString());
+		first.complete("A");
+		assertEquals("<head>A<body>B</body>", output.toString());
+		assertTrue(render.isDone());
+		render.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void rendersCompletedBindingsRightAway() throws Exception {
+		StringWriter output = new StringWriter();
+		CompletableFuture<Void> render = TemplateBuilder.forString("{{a}} {{b}}")
+				.value("a", CompletableFuture.completedFuture("x"))
+				.value("b", "y")
+				.executor(DIRECT)
+				.renderToAsync(output);
+		assertTrue(render.isDone());
+		assertEquals("x y", output.toString());
+		render.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void failsWithFailedBindings() {
+		CompletableFuture<String> value = new CompletableFuture<>();
+		StringWriter output = new StringWriter();
+		CompletableFuture<Void> render = TemplateBuilder.forString("a{{value}}b")
+				.value("value", value)
+				.executor(DIRECT)
+				.renderToAsync(output);
+		value.completeExceptionally(new IllegalStateException("failed"));
+		assertThrows(ExecutionException.class, () -> render.get(5, TimeUnit.SECONDS));
+		assertFalse(output.toString().endsWith("b"));
+	}
+
+	@Test
+	void failsWhenResumingIsRejected() {
+		CompletableFuture<String> value = new CompletableFuture<>();
+		StringWriter output = new StringWriter();
+		CompletableFuture<Void> render = TemplateBuilder.forString("a{{value}}b")
+				.value("value", value)
+				.executor(REJECTING)
+				.renderToAsync(output);
+		assertEquals("a", output.toString());
+		value.complete("x");
+		assertTrue(render.isDone());
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> render.get(5, TimeUnit.SECONDS));
+		assertTrue(exception.getCause() instanceof RejectedExecutionException);
+		assertEquals("a", output.toString());
+	}
+
+	@Test
+	void failsWhenSuppliersAreRejected() {
+		StringWriter output = new StringWriter();
+		CompletableFuture<Void> render = TemplateBuilder.forString("a{{value}}b")
+				.value("value", () -> "x")
+				.executor(REJECTING)
+				.renderToAsync(output);
+		assertTrue(render.isDone());
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> render.get(5, TimeUnit.SECONDS));
+		assertTrue(exception.getCause() instanceof RejectedExecutionException);
+		assertEquals("", output.toString());
+	}
+
+	private static final class FlushCountingWriter extends StringWriter {
+
+		private int flushes;
+
+		@Override
+		public void flush() {
+			flushes++;
+		}
+
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the allocations of renders into a reused {@code TemplateBuffer} with reused bindings, once warmed up.
+ */
+class TemplateAllocationTest {
+
+	private static final int WARM_UP_RENDERS = 50_000;
+	private static final int MEASURED_RENDERS = 10_000;
+	private static final int MEASUREMENTS = 5;
+
+	/**
+	 * Iterating a bound collection creates its {@code Iterator}, which escape analysis does not always remove, so a
+	 * list placeholder may allocate a few bytes per render.
+	 */
+	private static final long MAXIMUM_BYTES_PER_LIST = 64L;
+
+	@Test
+	void rendersValuesWithoutAllocating() {
+		CompiledTemplate template = CompiledTemplate.compile("Hello {{name}}, you owe {{amount}} to {{who}}. Bye {{name}}");
+		TemplateBindings bindings = template.newBindings()
+				.value("name", "Grzegorz")
+				.value("amount", "12.50")
+				.value("who", "Bank");
+		assertEquals(0.0, bytesPerRender(template, bindings, new DefaultTemplateStringEscaper()));
+	}
+
+	@Test
+	void rendersEscapedValuesWithoutAllocating() {
+		CompiledTemplate template = CompiledTemplate.compile("<p title=\"{{title}}\">{{text}}</p>");
+		TemplateBindings bindings = template.newBindings()
+				.value("title", "Tom & Jerry")
+				.value("text", "<b>bold</b>");
+		assertEquals(0.0, bytesPerRender(template, bindings, StandardTemplateStringEscaper.HTML));
+	}
+
+	@Test
+	void rendersListsWithBoundedAllocations() {
+		CompiledTemplate template = CompiledTemplate.compile("Items: [[items::INLINE]]");
+		TemplateBindings bindings = template.newBindings().list("items", Arrays.asList("a", "b", "c"));
+		double bytes = bytesPerRender(template, bindings, new DefaultTemplateStringEscaper());
+		assertTrue(bytes <= MAXIMUM_BYTES_PER_LIST, String.format("%s bytes per render", bytes));
+	}
+
+	/**
+	 * Gets the fewest bytes allocated per render over several measurements, since unrelated work of the JVM on the test
+	 * thread can be attributed to a single measurement.
+	 */
+	private static double bytesPerRender(CompiledTemplate template, TemplateBindings bindings,
+			TemplateStringEscaper escaper) {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "Allocated bytes cannot be measured");
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		assumeTrue(allocations.isThreadAllocatedMemorySupported(), "Allocated bytes cannot be measured");
+		allocations.setThreadAllocatedMemoryEnabled(true);
+		long threadId = Thread.currentThread().getId();
+		TemplateBuffer buffer = new TemplateBuffer(4);
+		render(template, bindings, escaper, buffer, WARM_UP_RENDERS);
+		long fewestBytes = Long.MAX_VALUE;
+		for (int measurement = 0; measurement < MEASUREMENTS; measurement++) {
+			long before = allocations.getThreadAllocatedBytes(threadId);
+			render(template, bindings, escaper, buffer, MEASURED_RENDERS);
+			long after = allocations.getThreadAllocatedBytes(threadId);
+			fewestBytes = Math.min(fewestBytes, after - before);
+		}
+		return (double) fewestBytes / MEASURED_RENDERS;
+	}
+
+	private static void render(CompiledTemplate template, TemplateBindings bindings, TemplateStringEscaper escaper,
+			TemplateBuffer buffer, int renders) {
+		for (int i = 0; i < renders; i++) {
+			buffer.clear();
+			template.renderTo(buffer, bindings, escaper);
+		}
+	}
+
+}
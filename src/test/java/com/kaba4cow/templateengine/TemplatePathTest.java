@@ -0,0 +1,106 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TemplatePathTest {
+
+	@Test
+	void resolvesPropertiesAndMapEntries() {
+		Map<String, Object> order = new HashMap<>();
+		order.put("customer", new Customer("Ann", null));
+		order.put("id", 5);
+		String result = TemplateBuilder.forString("#{{order.id}} {{order.customer.name}}")
+				.value("order", order)
+				.build();
+		assertEquals("#5 Ann", result);
+	}
+
+	@Test
+	void prefersBoundFullNames() {
+		String result = TemplateBuilder.forString("{{customer.name}}")
+				.value("customer", new Customer("Ann", null))
+				.value("customer.name", "Bo")
+				.build();
+		assertEquals("Bo", result);
+	}
+
+	@Test
+	void rejectsMethodsThatAreNotGetters() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{customer.rename}}")
+				.value("customer", new Customer("Ann", null));
+		assertThrows(TemplateEngineException.class, builder::build);
+	}
+
+	@Test
+	void rejectsMissingProperties() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{customer.age}}")
+				.value("customer", new Customer("Ann", null));
+		assertThrows(TemplateEngineException.class, builder::build);
+	}
+
+	@Test
+	void appliesNullPolicies() {
+		Customer customer = new Customer("Ann", null);
+		String template = "[{{customer.address.city}}]";
+		assertEquals("[null]", TemplateBuilder.forString(template).value("customer", customer).build());
+		assertEquals("[]", TemplateBuilder.forString(template)
+				.value("customer", customer)
+				.nullPolicy(TemplateNullPolicy.RENDER_EMPTY)
+				.build());
+		TemplateBuilder failing = TemplateBuilder.forString(template)
+				.value("customer", customer)
+				.nullPolicy(TemplateNullPolicy.FAIL);
+		assertThrows(TemplateEngineException.class, failing::build);
+	}
+
+	@Test
+	void readsObjectsOfDifferentClasses() {
+		CompiledTemplate template = CompiledTemplate.compile("{{item.name}}");
+		TemplateStringEscaper escaper = new DefaultTemplateStringEscaper();
+		Customer customer = new Customer("Ann", null);
+		Map<String, String> entry = Collections.singletonMap("name", "Bo");
+		assertEquals("Ann", template.render(template.newBindings().value("item", customer), escaper));
+		assertEquals("Bo", template.render(template.newBindings().value("item", entry), escaper));
+		assertEquals("Ann", template.render(template.newBindings().value("item", customer), escaper));
+	}
+
+	public static class Customer {
+
+		private final String name;
+		private final Address address;
+
+		public Customer(String name, Address address) {
+			this.name = name;
+			this.address = address;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+
+		public String rename() {
+			throw new AssertionError("Not a getter");
+		}
+
+	}
+
+	public static class Address {
+
+		public String getCity() {
+			return "Oslo";
+		}
+
+	}
+
+}
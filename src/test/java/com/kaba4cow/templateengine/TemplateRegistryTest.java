@@ -0,0 +1,214 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TemplateRegistryTest {
+
+	private Path root;
+	private Path directory;
+
+	@BeforeEach
+	void createDirectory() throws IOException {
+		root = Files.createTempDirectory("template-registry");
+		directory = Files.createDirectory(root.resolve("templates"));
+		write(directory.resolve("a.txt"), "A {{a}}");
+		write(directory.resolve("b.txt"), "B {{b}}");
+		write(directory.resolve("c.txt"), "C {{c}}");
+		write(root.resolve("secret.txt"), "secret");
+	}
+
+	@AfterEach
+	void deleteDirectory() throws IOException {
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	void cachesCompiledTemplates() {
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString());
+		CompiledTemplate template = registry.get("a.txt");
+		assertSame(template, registry.get("a.txt"));
+		assertEquals(1L, registry.missCount());
+		assertEquals(1L, registry.hitCount());
+		assertEquals(1, registry.size());
+		assertEquals(7L, registry.weight());
+		assertEquals("A 1", registry.builder("a.txt").value("a", 1).build());
+	}
+
+	@Test
+	void evictsTemplatesNotUsedSinceTheyWereCached() {
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString()).maximumWeight(14L);
+		CompiledTemplate a = registry.get("a.txt");
+		registry.get("b.txt");
+		registry.get("a.txt");
+		registry.get("c.txt");
+		assertEquals(2, registry.size());
+		assertEquals(14L, registry.weight());
+		assertEquals(1L, registry.evictionCount());
+		assertSame(a, registry.get("a.txt"));
+		assertEquals(3L, registry.missCount());
+		registry.get("b.txt");
+		assertEquals(4L, registry.missCount());
+	}
+
+	@Test
+	void staysWithinTheMaximumWeight() {
+		Map<String, String> sources = new HashMap<>();
+		TemplateRegistry registry = TemplateRegistry.forLoader(sources::get).maximumWeight(1_000L);
+		for (int i = 0; i < 10_000; i++) {
+			sources.put("t" + i, "template " + i);
+			registry.get("t" + i);
+			registry.get("t" + (i / 2));
+			if (i % 7 == 0)
+				registry.invalidate("t" + (i / 3));
+			assertTrue(registry.weight() <= 1_000L);
+		}
+		long weight = 0L;
+		for (int i = 0; i < 10_000; i++)
+			weight += sources.get("t" + i).length();
+		assertTrue(registry.evictionCount() > 0L);
+		assertTrue(registry.size() > 0);
+		assertTrue(weight > registry.weight());
+	}
+
+	@Test
+	void doesNotCacheTemplatesLoadedWhileFilesChange() {
+		Map<String, String> sources = new HashMap<>();
+		sources.put("a", "old");
+		TemplateRegistry[] registry = new TemplateRegistry[1];
+		registry[0] = TemplateRegistry.forLoader(name -> {
+			String source = sources.get(name);
+			sources.put(name, "new");
+			registry[0].reloadAll();
+			return source;
+		});
+		assertEquals("old", registry[0].get("a").template());
+		assertEquals(0, registry[0].size());
+		assertEquals("new", registry[0].get("a").template());
+	}
+
+	@Test
+	void skipsTemplatesHeavierThanTheMaximum() {
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString()).maximumWeight(6L);
+		registry.get("a.txt");
+		assertEquals(0, registry.size());
+		assertEquals(0L, registry.weight());
+	}
+
+	@Test
+	void invalidatesTemplates() {
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString());
+		registry.get("a.txt");
+		registry.get("b.txt");
+		registry.invalidate("a.txt");
+		assertEquals(1, registry.size());
+		assertEquals(7L, registry.weight());
+		registry.invalidateAll();
+		assertEquals(0, registry.size());
+		assertEquals(0L, registry.weight());
+	}
+
+	@Test
+	void rejectsNamesOutsideOfTheDirectory() {
+		TemplateLoader loader = TemplateLoader.forDirectory(directory);
+		assertThrows(FileNotFoundException.class, () -> loader.load("../secret.txt"));
+		assertThrows(FileNotFoundException.class, () -> loader.load("nested/../../secret.txt"));
+		assertThrows(FileNotFoundException.class, () -> loader.load(root.resolve("secret.txt").toString()));
+		RuntimeException exception = assertThrows(RuntimeException.class,
+				() -> TemplateRegistry.forDirectory(directory.toString()).get("../secret.txt"));
+		assertTrue(exception.getCause() instanceof FileNotFoundException);
+	}
+
+	@Test
+	void loadsNamesNormalizedInsideOfTheDirectory() throws IOException {
+		assertEquals("B {{b}}", TemplateLoader.forDirectory(directory).load("nested/../b.txt"));
+	}
+
+	@Test
+	void reloadsTemplatesInNewSubdirectoriesWhenWatched() throws IOException, InterruptedException {
+		List<Exception> errors = new ArrayList<>();
+		try (TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString())
+				.watchErrorHandler(errors::add)
+				.watch()) {
+			Path nested = Files.createDirectory(directory.resolve("nested"));
+			Thread.sleep(200L);
+			write(nested.resolve("d.txt"), "D {{d}}");
+			assertEquals("D {{d}}", registry.get("nested/d.txt").template());
+			write(nested.resolve("d.txt"), "E {{d}}");
+			long deadline = System.currentTimeMillis() + 5000L;
+			while (!registry.get("nested/d.txt").template().startsWith("E")
+					&& System.currentTimeMillis() < deadline)
+				Thread.sleep(10L);
+			assertEquals("E {{d}}", registry.get("nested/d.txt").template());
+		}
+		assertTrue(errors.isEmpty());
+	}
+
+	@Test
+	void invalidatesTemplatesThatCannotBeReadOnReload() throws IOException {
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString());
+		registry.get("a.txt");
+		Path path = directory.resolve("a.txt");
+		Files.delete(path);
+		Files.createDirectory(path);
+		registry.reload(path.toAbsolutePath().normalize());
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	void keepsWatchingAfterTemplatesFailToReload() throws IOException, InterruptedException {
+		List<Exception> errors = new ArrayList<>();
+		try (TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString())
+				.watchErrorHandler(errors::add)
+				.watch()) {
+			registry.get("a.txt");
+			registry.get("b.txt");
+			Files.delete(directory.resolve("a.txt"));
+			Files.createDirectory(directory.resolve("a.txt"));
+			Thread.sleep(200L);
+			write(directory.resolve("b.txt"), "E {{b}}");
+			long deadline = System.currentTimeMillis() + 5000L;
+			while (!registry.get("b.txt").template().startsWith("E") && System.currentTimeMillis() < deadline)
+				Thread.sleep(10L);
+			assertEquals("E {{b}}", registry.get("b.txt").template());
+		}
+		assertTrue(errors.isEmpty());
+	}
+
+	@Test
+	void reportsWatchErrorsToTheHandler() {
+		List<Exception> errors = new ArrayList<>();
+		TemplateRegistry registry = TemplateRegistry.forDirectory(directory.toString()).watchErrorHandler(errors::add);
+		IOException exception = new NoSuchFileException("nested");
+		registry.watchFailed(exception);
+		assertEquals(1, errors.size());
+		assertSame(exception, errors.get(0));
+		assertThrows(NullPointerException.class, () -> registry.watchErrorHandler(null));
+	}
+
+	private static void write(Path path, String content) throws IOException {
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.kaba4cow.templateengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.IllegalFormatException;
+
+import org.junit.jupiter.api.Test;
+
+class TemplateValueFormatTest {
+
+	@Test
+	void formatsPrintfAndDateSpecifiers() {
+		String result = TemplateBuilder.forString("Paid {{amount:%.2f}} on {{created:date:yyyy-MM-dd}}")
+				.value("amount", 42.5)
+				.value("created", LocalDate.of(2024, 3, 1))
+				.build();
+		assertEquals("Paid 42.50 on 2024-03-01", result);
+	}
+
+	@Test
+	void keepsOtherColonsInPlaceholderNames() {
+		CompiledTemplate template = CompiledTemplate.compile("{{a:b}} {{c:d:%03d}} {{e:date}}");
+		assertEquals("[a:b, c:d, e:date]", template.valueNames().toString());
+		String result = TemplateBuilder.forTemplate(template)
+				.value("a:b", "x")
+				.value("c:d", 7)
+				.value("e:date", "y")
+				.build();
+		assertEquals("x 007 y", result);
+	}
+
+	@Test
+	void rejectsPatternsWithoutFields() {
+		assertThrows(TemplateEngineException.class, () -> CompiledTemplate.compile("{{price:date:0.00}}"));
+		assertThrows(TemplateEngineException.class, () -> CompiledTemplate.compile("{{price:date:'yyyy'}}"));
+	}
+
+	@Test
+	void rejectsInvalidSpecifiers() {
+		assertThrows(TemplateEngineException.class, () -> CompiledTemplate.compile("{{price:%q}}"));
+		assertThrows(TemplateEngineException.class, () -> CompiledTemplate.compile("{{created:date:yyyy-bb}}"));
+	}
+
+	@Test
+	void rejectsValuesOfOtherTypes() {
+		TemplateBuilder builder = TemplateBuilder.forString("{{created:date:yyyy}}").value("created", "2024");
+		assertThrows(TemplateEngineException.class, builder::build);
+	}
+
+	@Test
+	void reportsPlaceholderNamesInsteadOfValues() {
+		for (String template : new String[] { "{{token:%d}}", "{{token:date:yyyy}}", "{{token:date:HH}}" }) {
+			for (CompiledTemplate compiled : new CompiledTemplate[] { CompiledTemplate.compile(template),
+					CompiledTemplate.compileGenerated(template) }) {
+				Object value = template.endsWith("HH}}") ? LocalDate.of(2024, 3, 1) : "secret-token";
+				TemplateEngineException exception = assertThrows(TemplateEngineException.class,
+						() -> TemplateBuilder.forTemplate(compiled).value("token", value).build());
+				assertTrue(exception.getMessage().startsWith("Value token cannot be formatted"), exception.getMessage());
+				assertFalse(exception.getMessage().contains("secret"), exception.getMessage());
+				assertFalse(exception.getMessage().contains("2024"), exception.getMessage());
+			}
+		}
+	}
+
+	@Test
+	void keepsTheCauseOfFormattingErrors() {
+		TemplateEngineException exception = assertThrows(TemplateEngineException.class,
+				() -> TemplateBuilder.forString("{{v:%d}}").value("v", "x").build());
+		assertTrue(exception.getCause() instanceof IllegalFormatException);
+	}
+
+}
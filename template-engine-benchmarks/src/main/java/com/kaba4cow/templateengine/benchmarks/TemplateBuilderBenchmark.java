@@ -0,0 +1,114 @@
+package com.kaba4cow.templateengine.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.templateengine.CompiledTemplate;
+import com.kaba4cow.templateengine.TemplateBindings;
+import com.kaba4cow.templateengine.TemplateBuilder;
+
+/**
+ * Measures {@code TemplateBuilder.build()} for templates of various sizes and placeholder counts, rendered by walking
+ * their segments or by a generated renderer class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBuilderBenchmark {
+
+	public enum TemplateSize {
+
+		SMALL(100), MEDIUM(10_000), HUGE(1_000_000);
+
+		private final int textLength;
+
+		TemplateSize(int textLength) {
+			this.textLength = textLength;
+		}
+
+	}
+
+	@Param({ "SMALL", "MEDIUM", "HUGE" })
+	private TemplateSize size;
+
+	@Param({ "1", "10", "100" })
+	private int valuePlaceholders;
+
+	@Param({ "0", "1", "10" })
+	private int listPlaceholders;
+
+	private String template;
+	private CompiledTemplate compiledTemplate;
+	private CompiledTemplate generatedTemplate;
+	private List<String> items;
+	private TemplateBindings bindings;
+	private TemplateBindings generatedBindings;
+
+	@Setup
+	public void setup() {
+		template = Templates.template(size.textLength, valuePlaceholders, listPlaceholders, "BULLETED");
+		compiledTemplate = CompiledTemplate.compile(template);
+		generatedTemplate = CompiledTemplate.compileGenerated(template);
+		items = Templates.items(10);
+		bindings = compiledTemplate.newBindings();
+		generatedBindings = generatedTemplate.newBindings();
+	}
+
+	@Benchmark
+	public String buildFromString() {
+		return bind(TemplateBuilder.forString(template)).build();
+	}
+
+	@Benchmark
+	public String buildFromCompiledTemplate() {
+		return bind(TemplateBuilder.forTemplate(compiledTemplate)).build();
+	}
+
+	@Benchmark
+	public String buildFromGeneratedTemplate() {
+		return bind(TemplateBuilder.forTemplate(generatedTemplate)).build();
+	}
+
+	@Benchmark
+	public String buildFromReusedBindings() {
+		return render(compiledTemplate, bindings);
+	}
+
+	@Benchmark
+	public String buildFromGeneratedTemplateAndReusedBindings() {
+		return render(generatedTemplate, generatedBindings);
+	}
+
+	private String render(CompiledTemplate template, TemplateBindings bindings) {
+		bindings.clear();
+		for (int slot = 0; slot < valuePlaceholders; slot++)
+			bindings.value(slot, "some value");
+		for (int slot = 0; slot < listPlaceholders; slot++)
+			bindings.list(slot, items);
+		return template.render(bindings);
+	}
+
+	private TemplateBuilder bind(TemplateBuilder builder) {
+		for (int i = 0; i < valuePlaceholders; i++)
+			builder.value("value" + i, "some value");
+		for (int i = 0; i < listPlaceholders; i++)
+			builder.list("list" + i, items);
+		return builder;
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.kaba4cow.templateengine.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.templateengine.TemplateListFormatter;
+
+/**
+ * Measures every {@code TemplateListFormatter} for lists of various sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateListFormatterBenchmark {
+
+	@Param({ "INLINE", "BULLETED", "ORDERED", "UNORDERED" })
+	private TemplateListFormatter formatter;
+
+	@Param({ "10", "1000", "100000" })
+	private int items;
+
+	private List<String> list;
+	private StringBuilder output;
+
+	@Setup
+	public void setup() {
+		list = Templates.items(items);
+		output = new StringBuilder();
+	}
+
+	@Benchmark
+	public String format() {
+		return formatter.format(list);
+	}
+
+	@Benchmark
+	public StringBuilder formatTo() throws IOException {
+		output.setLength(0);
+		formatter.formatTo(list, output);
+		return output;
+	}
+
+}
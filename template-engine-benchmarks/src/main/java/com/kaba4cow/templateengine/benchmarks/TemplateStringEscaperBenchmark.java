@@ -0,0 +1,129 @@
+package com.kaba4cow.templateengine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.templateengine.CompiledTemplate;
+import com.kaba4cow.templateengine.DefaultTemplateStringEscaper;
+import com.kaba4cow.templateengine.StandardTemplateStringEscaper;
+import com.kaba4cow.templateengine.TemplateBuilder;
+import com.kaba4cow.templateengine.TemplateStringEscaper;
+
+/**
+ * Measures {@code TemplateBuilder.build()} with different {@code TemplateStringEscaper}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateStringEscaperBenchmark {
+
+	public enum Escaper {
+
+		DEFAULT {
+
+			@Override
+			TemplateStringEscaper create() {
+				return new DefaultTemplateStringEscaper();
+			}
+
+		},
+		REPLACE_CHAIN {
+
+			@Override
+			TemplateStringEscaper create() {
+				return new ReplaceChainHtmlEscaper();
+			}
+
+		},
+		HTML {
+
+			@Override
+			TemplateStringEscaper create() {
+				return StandardTemplateStringEscaper.HTML;
+			}
+
+		},
+		JSON {
+
+			@Override
+			TemplateStringEscaper create() {
+				return StandardTemplateStringEscaper.JSON;
+			}
+
+		},
+		URL {
+
+			@Override
+			TemplateStringEscaper create() {
+				return StandardTemplateStringEscaper.URL;
+			}
+
+		};
+
+		abstract TemplateStringEscaper create();
+
+	}
+
+	@Param({ "DEFAULT", "REPLACE_CHAIN", "HTML", "JSON", "URL" })
+	private Escaper escaper;
+
+	@Param({ "Plain text without any special characters", "<b>\"Tom & Jerry\"</b> aren't <i>plain</i>" })
+	private String value;
+
+	@Param({ "10", "100" })
+	private int valuePlaceholders;
+
+	private CompiledTemplate compiledTemplate;
+	private TemplateStringEscaper templateStringEscaper;
+
+	@Setup
+	public void setup() {
+		compiledTemplate = CompiledTemplate.compile(Templates.template(1_000, valuePlaceholders, 0, "INLINE"));
+		templateStringEscaper = escaper.create();
+	}
+
+	@Benchmark
+	public String build() {
+		TemplateBuilder builder = TemplateBuilder.forTemplate(compiledTemplate).escaper(templateStringEscaper);
+		for (int i = 0; i < valuePlaceholders; i++)
+			builder.value("value" + i, value);
+		return builder.build();
+	}
+
+	@Benchmark
+	public String escape() {
+		return templateStringEscaper.escape(value);
+	}
+
+	/**
+	 * The escaper the README used to suggest, as a baseline for {@code StandardTemplateStringEscaper.HTML}: five full
+	 * passes, each {@code replace} call allocating a new string when its character occurs.
+	 */
+	static class ReplaceChainHtmlEscaper implements TemplateStringEscaper {
+
+		@Override
+		public String escape(String string) {
+			return string.replace("&", "&amp;")
+					.replace("<", "&lt;")
+					.replace(">", "&gt;")
+					.replace("\"", "&quot;")
+					.replace("'", "&#39;");
+		}
+
+	}
+
+}
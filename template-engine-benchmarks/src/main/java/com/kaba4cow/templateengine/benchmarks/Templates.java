@@ -0,0 +1,50 @@
+package com.kaba4cow.templateengine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates synthetic templates and data for the benchmarks.
+ */
+final class Templates {
+
+	private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ";
+
+	private Templates() {}
+
+	/**
+	 * Generates a template with the specified amount of static text and placeholders spread evenly across it.
+	 * <p>
+	 * Value placeholders are named {@code value0}, {@code value1}, ... and list placeholders {@code list0},
+	 * {@code list1}, ...
+	 * </p>
+	 */
+	static String template(int textLength, int valuePlaceholders, int listPlaceholders, String listFormatter) {
+		int placeholders = valuePlaceholders + listPlaceholders;
+		int chunkLength = textLength / (placeholders + 1);
+		StringBuilder builder = new StringBuilder(textLength + placeholders * 32);
+		int values = 0;
+		int lists = 0;
+		for (int i = 0; i <= placeholders; i++) {
+			text(builder, chunkLength);
+			if (values < valuePlaceholders)
+				builder.append("{{value").append(values++).append("}}");
+			else if (lists < listPlaceholders)
+				builder.append("[[list").append(lists++).append("::").append(listFormatter).append("]]");
+		}
+		return builder.toString();
+	}
+
+	static List<String> items(int count) {
+		List<String> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			items.add("item " + i);
+		return items;
+	}
+
+	private static void text(StringBuilder builder, int length) {
+		for (int i = 0; i < length; i++)
+			builder.append(TEXT.charAt(i % TEXT.length()));
+	}
+
+}
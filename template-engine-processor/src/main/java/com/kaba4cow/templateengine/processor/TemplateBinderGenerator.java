@@ -0,0 +1,243 @@
+package com.kaba4cow.templateengine.processor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.kaba4cow.templateengine.CompiledTemplate;
+import com.kaba4cow.templateengine.TemplateProperties;
+
+/**
+ * Generates the Java source of a {@code TemplateBinder} for a type annotated with {@code TemplateModel}.
+ * <p>
+ * Every placeholder of the template is matched with an accessor of the type when the generator is created, by the
+ * rules of {@code TemplateProperties} that runtime binding follows too: a record component accessor, a public
+ * {@code get} or {@code is} getter, or a public field. The generated binder calls the accessors and binds their results
+ * by slot index, with the overload of
+ * {@code TemplateBindings} that fits their return type. Path placeholders such as <code>{{order.customer.name}}</code>
+ * need no accessor of their own: they are resolved from the value bound to their root when the template is rendered.
+ * </p>
+ */
+final class TemplateBinderGenerator {
+
+	private static final String CLASS_NAME_SUFFIX = "Binder";
+
+	private static final String[] LIST_TYPES = { "java.util.Collection", "java.util.function.Supplier",
+			"java.util.concurrent.CompletionStage" };
+
+	private final ProcessingEnvironment processingEnv;
+	private final TypeElement type;
+	private final String resourceName;
+	private final String templateClassName;
+	private final CompiledTemplate template;
+	private final Map<String, Element> accessors;
+	private final StringBuilder statements;
+
+	TemplateBinderGenerator(ProcessingEnvironment processingEnv, TypeElement type, String resourceName,
+			String templateClassName, CompiledTemplate template) {
+		this.processingEnv = processingEnv;
+		this.type = type;
+		this.resourceName = resourceName;
+		this.templateClassName = templateClassName;
+		this.template = template;
+		this.accessors = new HashMap<>();
+		this.statements = new StringBuilder();
+		collectAccessors();
+	}
+
+	/**
+	 * Matches every placeholder of the template with an accessor, reporting placeholders without one as errors.
+	 * 
+	 * @return {@code true} if all placeholders are matched
+	 */
+	boolean bindAll() {
+		boolean bound = true;
+		List<String> valueNames = template.valueNames();
+		for (int slot = 0; slot < valueNames.size(); slot++) {
+			if (isPath(valueNames.get(slot), valueNames))
+				continue;
+			Element accessor = accessors.get(valueNames.get(slot));
+			if (accessor == null) {
+				error("No accessor for value placeholder %s of template resource %s", valueNames.get(slot),
+						resourceName);
+				bound = false;
+			} else
+				statement("value", slot, accessor, valueCast(propertyType(accessor)));
+		}
+		List<String> listNames = template.listNames();
+		for (int slot = 0; slot < listNames.size(); slot++) {
+			Element accessor = accessors.get(listNames.get(slot));
+			if (accessor == null) {
+				error("No accessor for list placeholder %s of template resource %s", listNames.get(slot), resourceName);
+				bound = false;
+			} else if (!isList(propertyType(accessor))) {
+				error("Accessor %s for list placeholder %s does not return a Collection, Supplier or CompletionStage",
+						accessor.getSimpleName(), listNames.get(slot));
+				bound = false;
+			} else
+				statement("list", slot, accessor, "");
+		}
+		return bound;
+	}
+
+	/**
+	 * Gets the qualified name of the generated binder class.
+	 * 
+	 * @return the qualified name
+	 */
+	String qualifiedName() {
+		String packageName = packageName();
+		return packageName.isEmpty() ? className() : packageName + "." + className();
+	}
+
+	/**
+	 * Gets the source of the generated binder class.
+	 * 
+	 * @return the source
+	 */
+	String source() {
+		String className = className();
+		String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+		StringBuilder source = new StringBuilder();
+		if (!packageName().isEmpty())
+			source.append("package ").append(packageName()).append(";\n\n");
+		source.append("import com.kaba4cow.templateengine.CompiledTemplate;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateBinder;\n");
+		source.append("import com.kaba4cow.templateengine.TemplateBindings;\n\n");
+		source.append("/**\n * Generated template binder. Do not edit.\n */\n");
+		source.append("public final class ").append(className).append(" implements TemplateBinder<").append(typeName)
+				.append("> {\n\n");
+		source.append("\t/**\n\t * The binder instance.\n\t */\n");
+		source.append("\tpublic static final ").append(className).append(" INSTANCE = new ").append(className)
+				.append("();\n\n");
+		source.append("\tprivate ").append(className).append("() {}\n\n");
+		source.append("\t@Override\n\tpublic CompiledTemplate template() {\n");
+		source.append("\t\treturn ").append(templateClassName).append(".TEMPLATE;\n\t}\n\n");
+		source.append("\t@Override\n\tpublic void bind(").append(typeName)
+				.append(" source, TemplateBindings bindings) {\n");
+		source.append("\t\tif (bindings.template() != ").append(templateClassName).append(".TEMPLATE)\n");
+		source.append("\t\t\tthrow new IllegalArgumentException(\"Bindings belong to another template\");\n");
+		source.append(statements);
+		source.append("\t}\n\n}\n");
+		return source.toString();
+	}
+
+	private void collectAccessors() {
+		Elements elements = processingEnv.getElementUtils();
+		TypeElement object = elements.getTypeElement(Object.class.getName());
+		Map<String, Element> fieldAccessors = new HashMap<>();
+		Map<String, Element> beanAccessors = new HashMap<>();
+		Map<String, Element> componentAccessors = new HashMap<>();
+		for (VariableElement field : ElementFilter.fieldsIn(elements.getAllMembers(type)))
+			if (field.getModifiers().contains(Modifier.PUBLIC) && !field.getModifiers().contains(Modifier.STATIC))
+				fieldAccessors.putIfAbsent(field.getSimpleName().toString(), field);
+		Set<String> components = components();
+		for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+			Set<Modifier> modifiers = method.getModifiers();
+			if (method.getEnclosingElement().equals(object) || modifiers.contains(Modifier.STATIC)
+					|| !modifiers.contains(Modifier.PUBLIC) || !method.getParameters().isEmpty()
+					|| method.getReturnType().getKind() == TypeKind.VOID)
+				continue;
+			String name = method.getSimpleName().toString();
+			if (components.contains(name) && method.getEnclosingElement().equals(type))
+				componentAccessors.put(name, method);
+			String property = TemplateProperties.propertyName(name,
+					method.getReturnType().getKind() == TypeKind.BOOLEAN);
+			if (property != null)
+				beanAccessors.putIfAbsent(property, method);
+		}
+		accessors.putAll(fieldAccessors);
+		accessors.putAll(beanAccessors);
+		accessors.putAll(componentAccessors);
+	}
+
+	/**
+	 * Gets the component names of the type if it is a record, which are the names of its instance fields.
+	 */
+	private Set<String> components() {
+		Set<String> components = new HashSet<>();
+		Element superclass = processingEnv.getTypeUtils().asElement(type.getSuperclass());
+		if (!(superclass instanceof TypeElement) || !((TypeElement) superclass).getQualifiedName()
+				.contentEquals(TemplateProperties.RECORD_CLASS_NAME))
+			return components;
+		for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements()))
+			if (!field.getModifiers().contains(Modifier.STATIC))
+				components.add(field.getSimpleName().toString());
+		return components;
+	}
+
+	private void statement(String method, int slot, Element accessor, String cast) {
+		statements.append("\t\tbindings.").append(method).append('(').append(slot).append(", ").append(cast)
+				.append("source.").append(accessor.getSimpleName());
+		if (accessor.getKind() == ElementKind.METHOD)
+			statements.append("()");
+		statements.append(");\n");
+	}
+
+	private static TypeMirror propertyType(Element accessor) {
+		return accessor.getKind() == ElementKind.METHOD ? ((ExecutableElement) accessor).getReturnType()
+				: accessor.asType();
+	}
+
+	/**
+	 * Gets the cast selecting the unboxed overload of {@code TemplateBindings.value} for the specified type.
+	 */
+	private static String valueCast(TypeMirror type) {
+		switch (type.getKind()) {
+		case BYTE:
+		case SHORT:
+		case INT:
+			return "(long) ";
+		default:
+			return "";
+		}
+	}
+
+	private boolean isList(TypeMirror returnType) {
+		Types types = processingEnv.getTypeUtils();
+		Elements elements = processingEnv.getElementUtils();
+		for (String listType : LIST_TYPES)
+			if (types.isAssignable(types.erasure(returnType),
+					types.erasure(elements.getTypeElement(listType).asType())))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Checks whether the specified placeholder is a path resolved from another placeholder, like
+	 * {@code CompiledTemplate} does.
+	 */
+	private static boolean isPath(String placeholder, List<String> valueNames) {
+		String root = TemplateProperties.pathRoot(placeholder);
+		return root != null && valueNames.contains(root);
+	}
+
+	private String packageName() {
+		return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+	}
+
+	private String className() {
+		return type.getSimpleName() + CLASS_NAME_SUFFIX;
+	}
+
+	private void error(String format, Object... args) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(format, args), type);
+	}
+
+}
@@ -0,0 +1,253 @@
+package com.kaba4cow.templateengine.processor;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.kaba4cow.templateengine.CompiledTemplate;
+import com.kaba4cow.templateengine.PrecompiledTemplates;
+import com.kaba4cow.templateengine.TemplateEngineException;
+import com.kaba4cow.templateengine.TemplateModel;
+import com.kaba4cow.templateengine.TemplateRendererGenerator;
+
+/**
+ * Annotation processor precompiling the template resources listed by {@link PrecompiledTemplates} annotations.
+ * <p>
+ * Every template resource is read from the class output, the source path or the class path, in that order, and
+ * compiled. Invalid templates are reported as compilation errors on the annotated element. For every valid template,
+ * a renderer class is generated in the package of the annotated element, and the resource is recorded in the index
+ * read by {@code TemplateBuilder.forResource}. The index already in the class output is merged with the resources of
+ * the current compilation, so incremental compilations that process only some annotated elements keep the entries of
+ * the others, as long as their generated classes still exist.
+ * </p>
+ * <p>
+ * For every type annotated with {@link TemplateModel}, its template resource is precompiled the same way, and a
+ * {@code TemplateBinder} calling the accessors of the type is generated next to it. Placeholders without a matching
+ * accessor are reported as compilation errors.
+ * </p>
+ * <p>
+ * Template resources are read like {@code TemplateBuilder.forResource} reads them: with the default charset, joining
+ * lines with {@code \n}.
+ * </p>
+ */
+@SupportedAnnotationTypes({ "com.kaba4cow.templateengine.PrecompiledTemplates",
+		"com.kaba4cow.templateengine.TemplateModel" })
+public class TemplateProcessor extends AbstractProcessor {
+
+	private static final StandardLocation[] RESOURCE_LOCATIONS = { StandardLocation.CLASS_OUTPUT,
+			StandardLocation.SOURCE_PATH, StandardLocation.CLASS_PATH };
+
+	private static final String CLASS_NAME_SUFFIX = "Template";
+
+	private final Map<String, String> index;
+	private final Map<String, CompiledTemplate> templates;
+	private final List<Element> indexElements;
+
+	/**
+	 * Creates a new {@code TemplateProcessor}.
+	 */
+	public TemplateProcessor() {
+		this.index = new TreeMap<>();
+		this.templates = new HashMap<>();
+		this.indexElements = new ArrayList<>();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+		for (Element element : roundEnvironment.getElementsAnnotatedWith(PrecompiledTemplates.class))
+			for (String resourceName : element.getAnnotation(PrecompiledTemplates.class).value())
+				precompile(element, resourceName);
+		for (Element element : roundEnvironment.getElementsAnnotatedWith(TemplateModel.class))
+			generateBinder((TypeElement) element, element.getAnnotation(TemplateModel.class).value());
+		if (roundEnvironment.processingOver() && !index.isEmpty())
+			writeIndex();
+		return true;
+	}
+
+	private void precompile(Element element, String resourceName) {
+		String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+		String className = className(resourceName);
+		if (!SourceVersion.isIdentifier(className) || SourceVersion.isKeyword(className)) {
+			error(element, "Cannot name a class after template resource %s", resourceName);
+			return;
+		}
+		String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+		if (index.containsKey(resourceName)) {
+			error(element, "Template resource %s is precompiled more than once", resourceName);
+			return;
+		}
+		if (index.containsValue(qualifiedName)) {
+			error(element, "Template resource %s is precompiled to %s, like another resource", resourceName,
+					qualifiedName);
+			return;
+		}
+		String template;
+		try {
+			template = read(resourceName);
+		} catch (IOException exception) {
+			error(element, "Could not load template from resource %s: %s", resourceName, exception.getMessage());
+			return;
+		}
+		CompiledTemplate compiledTemplate;
+		try {
+			compiledTemplate = CompiledTemplate.compile(template);
+		} catch (TemplateEngineException exception) {
+			error(element, "Invalid template resource %s: %s", resourceName, exception.getMessage());
+			return;
+		}
+		String source = TemplateRendererGenerator.generateSource(compiledTemplate, packageName, className);
+		try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, element).openWriter()) {
+			writer.write(source);
+		} catch (IOException exception) {
+			error(element, "Could not write %s: %s", qualifiedName, exception.getMessage());
+			return;
+		}
+		index.put(resourceName, qualifiedName);
+		templates.put(resourceName, compiledTemplate);
+		indexElements.add(element);
+	}
+
+	private void generateBinder(TypeElement type, String resourceName) {
+		if (!index.containsKey(resourceName)) {
+			precompile(type, resourceName);
+			if (!index.containsKey(resourceName))
+				return;
+		}
+		TemplateBinderGenerator generator = new TemplateBinderGenerator(processingEnv, type, resourceName,
+				index.get(resourceName), templates.get(resourceName));
+		if (!generator.bindAll())
+			return;
+		String qualifiedName = generator.qualifiedName();
+		try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+			writer.write(generator.source());
+		} catch (IOException exception) {
+			error(type, "Could not write %s: %s", qualifiedName, exception.getMessage());
+		}
+	}
+
+	private String read(String resourceName) throws IOException {
+		for (StandardLocation location : RESOURCE_LOCATIONS) {
+			try {
+				FileObject resource = processingEnv.getFiler().getResource(location, "", resourceName);
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream()))) {
+					return reader.lines().collect(Collectors.joining("\n"));
+				}
+			} catch (IOException | IllegalArgumentException exception) {
+				continue;
+			}
+		}
+		throw new FileNotFoundException(String.format("Resource %s not found", resourceName));
+	}
+
+	private void writeIndex() {
+		Map<String, String> mergedIndex = new TreeMap<>();
+		for (Map.Entry<String, String> entry : readIndex().entrySet())
+			if (!index.containsValue(entry.getValue())
+					&& processingEnv.getElementUtils().getTypeElement(entry.getValue()) != null)
+				mergedIndex.put(entry.getKey(), entry.getValue());
+		mergedIndex.putAll(index);
+		Element[] elements = indexElements.toArray(new Element[0]);
+		try (Writer writer = processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", PrecompiledTemplates.INDEX_RESOURCE, elements)
+				.openWriter()) {
+			for (Map.Entry<String, String> entry : mergedIndex.entrySet())
+				writer.write(escape(entry.getKey()) + "=" + entry.getValue() + "\n");
+		} catch (IOException exception) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					String.format("Could not write %s: %s", PrecompiledTemplates.INDEX_RESOURCE, exception.getMessage()));
+		}
+	}
+
+	/**
+	 * Reads the index written by a previous compilation to the class output, if there is one.
+	 */
+	private Map<String, String> readIndex() {
+		Properties previousIndex = new Properties();
+		try {
+			FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+					PrecompiledTemplates.INDEX_RESOURCE);
+			try (InputStream input = resource.openInputStream()) {
+				previousIndex.load(input);
+			}
+		} catch (IOException | IllegalArgumentException exception) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> entries = new HashMap<>();
+		for (String resourceName : previousIndex.stringPropertyNames())
+			entries.put(resourceName, previousIndex.getProperty(resourceName));
+		return entries;
+	}
+
+	private void error(Element element, String format, Object... args) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+	}
+
+	/**
+	 * Derives a class name from the file name of the specified resource: {@code templates/order-confirmation.html}
+	 * becomes {@code OrderConfirmationTemplate}.
+	 */
+	static String className(String resourceName) {
+		String fileName = resourceName.substring(resourceName.lastIndexOf('/') + 1);
+		int extensionIndex = fileName.indexOf('.');
+		if (extensionIndex > 0)
+			fileName = fileName.substring(0, extensionIndex);
+		StringBuilder className = new StringBuilder();
+		boolean wordStart = true;
+		for (int i = 0; i < fileName.length(); i++) {
+			char c = fileName.charAt(i);
+			if (!Character.isJavaIdentifierPart(c) || c == '_' || c == '$')
+				wordStart = true;
+			else if (wordStart) {
+				className.append(Character.toUpperCase(c));
+				wordStart = false;
+			} else
+				className.append(c);
+		}
+		return className.append(CLASS_NAME_SUFFIX).toString();
+	}
+
+	/**
+	 * Escapes a key of a properties file.
+	 */
+	private static String escape(String key) {
+		StringBuilder escaped = new StringBuilder();
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (" =:#!\\".indexOf(c) != -1)
+				escaped.append('\\').append(c);
+			else if (c < 0x20 || c > 0x7E)
+				escaped.append(String.format("\\u%04x", (int) c));
+			else
+				escaped.append(c);
+		}
+		return escaped.toString();
+	}
+
+}
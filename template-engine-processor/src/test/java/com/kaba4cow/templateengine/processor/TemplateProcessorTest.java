@@ -0,0 +1,172 @@
+package com.kaba4cow.templateengine.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.kaba4cow.templateengine.CompiledTemplate;
+import com.kaba4cow.templateengine.PrecompiledTemplates;
+import com.kaba4cow.templateengine.TemplateBinder;
+
+class TemplateProcessorTest {
+
+	private Path directory;
+	private Path sources;
+	private Path classes;
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+
+	@BeforeEach
+	void createDirectories() throws IOException {
+		directory = Files.createTempDirectory("template-processor");
+		sources = Files.createDirectories(directory.resolve("sources"));
+		classes = Files.createDirectories(directory.resolve("classes"));
+		diagnostics = new DiagnosticCollector<>();
+	}
+
+	@AfterEach
+	void deleteDirectories() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	void generatesBindersForModels() throws Exception {
+		resource("templates/welcome.txt", "Hi {{name}}, {{unread}} new, active: {{active}} [[items::INLINE]]");
+		source("demo/Welcome.java", "package demo;",
+				"import java.util.*;",
+				"@com.kaba4cow.templateengine.TemplateModel(\"templates/welcome.txt\")",
+				"public class Welcome {",
+				"	public int unread = 3;",
+				"	public String getName() { return \"Ann\"; }",
+				"	public boolean isActive() { return true; }",
+				"	public List<String> getItems() { return Arrays.asList(\"a\", \"b\"); }",
+				"}");
+		assertTrue(compile("demo/Welcome.java"), diagnostics.getDiagnostics().toString());
+		try (URLClassLoader classLoader = classLoader()) {
+			Object model = classLoader.loadClass("demo.Welcome").getDeclaredConstructor().newInstance();
+			@SuppressWarnings("unchecked")
+			TemplateBinder<Object> binder = (TemplateBinder<Object>) classLoader.loadClass("demo.WelcomeBinder")
+					.getField("INSTANCE").get(null);
+			assertTrue(binder.template().isGenerated());
+			assertEquals("Hi Ann, 3 new, active: true a, b", binder.render(model));
+		}
+	}
+
+	@Test
+	void rejectsMethodsThatAreNotGetters() throws IOException {
+		resource("templates/delete.txt", "{{delete}}");
+		source("demo/Model.java", "package demo;",
+				"@com.kaba4cow.templateengine.TemplateModel(\"templates/delete.txt\")",
+				"public class Model {",
+				"	public boolean delete() { return true; }",
+				"}");
+		assertFalse(compile("demo/Model.java"));
+		assertTrue(errors().contains("No accessor for value placeholder delete"), errors());
+	}
+
+	@Test
+	void rejectsInvalidTemplates() throws IOException {
+		resource("templates/broken.txt", "Hi {{name");
+		source("demo/Broken.java", "package demo;",
+				"@com.kaba4cow.templateengine.PrecompiledTemplates(\"templates/broken.txt\")",
+				"public class Broken {}");
+		assertFalse(compile("demo/Broken.java"));
+		assertTrue(errors().contains("Invalid template resource templates/broken.txt"), errors());
+	}
+
+	@Test
+	void mergesTheIndexOfIncrementalCompilations() throws Exception {
+		resource("templates/a.txt", "A {{x}}");
+		resource("templates/b.txt", "B {{x}}");
+		source("demo/A.java", "package demo;",
+				"@com.kaba4cow.templateengine.PrecompiledTemplates(\"templates/a.txt\")",
+				"public class A {}");
+		source("demo/B.java", "package demo;",
+				"@com.kaba4cow.templateengine.PrecompiledTemplates(\"templates/b.txt\")",
+				"public class B {}");
+		assertTrue(compile("demo/A.java"), diagnostics.getDiagnostics().toString());
+		assertTrue(compile("demo/B.java"), diagnostics.getDiagnostics().toString());
+		List<String> index = Files.readAllLines(classes.resolve(PrecompiledTemplates.INDEX_RESOURCE));
+		assertEquals(Arrays.asList("templates/a.txt=demo.ATemplate", "templates/b.txt=demo.BTemplate"), index);
+	}
+
+	private void resource(String name, String content) throws IOException {
+		Path path = classes.resolve(name);
+		Files.createDirectories(path.getParent());
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void source(String name, String... lines) throws IOException {
+		Path path = sources.resolve(name);
+		Files.createDirectories(path.getParent());
+		Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Compiles the specified source with the processor, against the library and the classes compiled so far.
+	 */
+	private boolean compile(String name) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeTrue(compiler != null, "No system Java compiler");
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+				StandardCharsets.UTF_8)) {
+			List<String> options = new ArrayList<>(Arrays.asList("-d", classes.toString(), "-s", classes.toString(),
+					"-classpath", location(CompiledTemplate.class) + File.pathSeparator + classes));
+			Iterable<? extends JavaFileObject> units = fileManager
+					.getJavaFileObjectsFromFiles(Collections.singletonList(sources.resolve(name).toFile()));
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+			task.setProcessors(Collections.singletonList(new TemplateProcessor()));
+			return task.call();
+		}
+	}
+
+	private String errors() {
+		StringBuilder errors = new StringBuilder();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+				errors.append(diagnostic.getMessage(null)).append('\n');
+		return errors.toString();
+	}
+
+	private URLClassLoader classLoader() throws IOException {
+		return new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+	}
+
+	private static String location(Class<?> type) throws IOException {
+		try {
+			return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+		} catch (URISyntaxException exception) {
+			throw new IOException(exception);
+		}
+	}
+
+}